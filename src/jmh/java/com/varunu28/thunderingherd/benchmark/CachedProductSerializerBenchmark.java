@@ -0,0 +1,66 @@
+package com.varunu28.thunderingherd.benchmark;
+
+import com.varunu28.thunderingherd.cache.CachedProduct;
+import com.varunu28.thunderingherd.cache.CachedProductRedisSerializer;
+import com.varunu28.thunderingherd.config.RedisCacheProperties.Codec;
+import com.varunu28.thunderingherd.config.RedisCacheProperties.Codec.Format;
+import com.varunu28.thunderingherd.model.Product;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Encode/decode cost of the Redis value serializer wired in RedisConfig. The entry size for each combination
+// is printed once per fork so bytes per entry can be compared alongside throughput.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CachedProductSerializerBenchmark {
+
+    @Param({"JSON", "BINARY"})
+    public Format format;
+
+    @Param({"32", "2048"})
+    public int descriptionLength;
+
+    private CachedProductRedisSerializer serializer;
+    private CachedProduct entry;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        serializer = new CachedProductRedisSerializer(new Codec(format, 512));
+        String description = "Sturdy, reliable and well made. ".repeat(descriptionLength / 32 + 1)
+            .substring(0, descriptionLength);
+        Product product = new Product(
+            UUID.randomUUID(), "Test Product", description, new BigDecimal("19.99"), new Date());
+        long now = System.currentTimeMillis();
+        entry = new CachedProduct(product, 12, now + 300_000, now + 600_000);
+        encoded = serializer.serialize(entry);
+        System.out.printf("%n%s, description %d chars: %d bytes per entry%n", format, descriptionLength, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(entry);
+    }
+
+    @Benchmark
+    public CachedProduct decode() {
+        return serializer.deserialize(encoded);
+    }
+}
@@ -0,0 +1,76 @@
+package com.varunu28.thunderingherd.benchmark;
+
+import com.varunu28.thunderingherd.model.Product;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Mirrors how ProductService coalesces loads through ongoingRequests: the single-key path claims an id with
+// computeIfAbsent, the batch path with putIfAbsent, and whoever completes the future removes the entry again.
+// Fewer distinct keys means more threads fighting over the same bins.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@Threads(8)
+@State(Scope.Benchmark)
+public class OngoingRequestsBenchmark {
+
+    @Param({"1", "16", "1024"})
+    public int distinctKeys;
+
+    private final ConcurrentHashMap<UUID, CompletableFuture<Product>> ongoingRequests = new ConcurrentHashMap<>();
+    private final Product product = new Product("Test Product", "Test Description", BigDecimal.TEN);
+    private UUID[] keys;
+
+    @Setup
+    public void setUp() {
+        keys = new UUID[distinctKeys];
+        for (int i = 0; i < distinctKeys; i++) {
+            keys[i] = UUID.randomUUID();
+        }
+    }
+
+    @Benchmark
+    public Product computeIfAbsent() {
+        UUID id = nextKey();
+        CompletableFuture<Product> future = ongoingRequests.computeIfAbsent(id, productId -> new CompletableFuture<>());
+        if (future.complete(product)) {
+            ongoingRequests.remove(id, future);
+        }
+        return future.join();
+    }
+
+    @Benchmark
+    public Product putIfAbsent() {
+        UUID id = nextKey();
+        CompletableFuture<Product> future = new CompletableFuture<>();
+        CompletableFuture<Product> inFlight = ongoingRequests.putIfAbsent(id, future);
+        if (inFlight != null) {
+            return inFlight.join();
+        }
+        future.complete(product);
+        ongoingRequests.remove(id, future);
+        return future.join();
+    }
+
+    private UUID nextKey() {
+        return keys[ThreadLocalRandom.current().nextInt(distinctKeys)];
+    }
+}
@@ -0,0 +1,62 @@
+package com.varunu28.thunderingherd.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.varunu28.thunderingherd.dto.GetProductDto;
+import com.varunu28.thunderingherd.model.Product;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+// Cost of turning a cached Product into the GET response body, as the controller does on every hit
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ProductResponseBenchmark {
+
+    private Product product;
+    private GetProductDto dto;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        product = new Product(
+            UUID.randomUUID(), "Test Product", "Test Description", new BigDecimal("19.99"), new Date());
+        dto = GetProductDto.from(product);
+        // Same defaults Spring Boot applies to the MVC message converter
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    }
+
+    @Benchmark
+    public GetProductDto toDto() {
+        return GetProductDto.from(product);
+    }
+
+    @Benchmark
+    public byte[] serializeDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public byte[] toDtoAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(GetProductDto.from(product));
+    }
+}
@@ -0,0 +1,241 @@
+package com.varunu28.thunderingherd.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntFunction;
+
+/**
+ * Drives {@code GET /api/v1/products/{id}} against a running instance and reports latency percentiles, throughput
+ * and how many queries reached Postgres (from the {@code product.db.lookups} metric, which both the servlet and
+ * the reactive stack record).
+ *
+ * <ul>
+ *     <li>{@code herd}: {@code concurrency} requests released at the same instant for one freshly created key</li>
+ *     <li>{@code zipf}: {@code requests} lookups over {@code keys} products with Zipf distributed popularity</li>
+ *     <li>{@code expiry}: {@code keys} products are read once, then after {@code expiry-wait} (set it above the
+ *     server's Redis TTL) all of them are requested at once</li>
+ *     <li>{@code missing}: {@code requests} lookups for random ids that do not exist</li>
+ * </ul>
+ */
+public class LoadGenerator {
+
+    private static final String PRODUCTS_PATH = "/api/v1/products";
+    private static final String METRICS_PATH = "/actuator/metrics";
+    private static final String REPOSITORY_METRIC = "product.db.lookups";
+    private static final List<String> REPOSITORY_METHODS = List.of("findById", "findAllById");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final Duration timeout;
+
+    LoadGenerator(String baseUrl, Duration timeout) {
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(timeout)
+            .executor(executor)
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String scenario = options.getOrDefault("scenario", "herd");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "10000"));
+        int keys = Integer.parseInt(options.getOrDefault("keys", "1000"));
+        double zipfExponent = Double.parseDouble(options.getOrDefault("zipf-exponent", "1.0"));
+        Duration expiryWait = Duration.parse(options.getOrDefault("expiry-wait", "PT15S"));
+        Duration timeout = Duration.parse(options.getOrDefault("timeout", "PT30S"));
+
+        LoadGenerator generator = new LoadGenerator(options.getOrDefault("base-url", "http://localhost:8080"), timeout);
+        try {
+            switch (scenario) {
+                case "herd" -> {
+                    UUID id = generator.createProducts(1).getFirst();
+                    generator.run(scenario, concurrency, concurrency, request -> id);
+                }
+                case "zipf" -> {
+                    List<UUID> ids = generator.createProducts(keys);
+                    ZipfDistribution zipf = new ZipfDistribution(ids.size(), zipfExponent);
+                    generator.run(scenario, requests, concurrency, request -> ids.get(zipf.sample()));
+                }
+                case "expiry" -> {
+                    List<UUID> ids = generator.createProducts(keys);
+                    generator.fire(ids.size(), concurrency, ids::get, new LoadReport());
+                    System.out.printf("Warmed %d keys, waiting %s for them to expire%n", ids.size(), expiryWait);
+                    Thread.sleep(expiryWait.toMillis());
+                    generator.run(scenario, ids.size(), concurrency, ids::get);
+                }
+                case "missing" -> generator.run(scenario, requests, concurrency, request -> UUID.randomUUID());
+                default -> throw new IllegalArgumentException("Unknown scenario " + scenario);
+            }
+        } finally {
+            generator.executor.shutdownNow();
+        }
+    }
+
+    private void run(String scenario, int requests, int concurrency, IntFunction<UUID> keyForRequest)
+        throws Exception {
+        Map<String, Long> lookupsBefore = repositoryInvocations();
+        LoadReport report = new LoadReport();
+        Duration elapsed = fire(requests, concurrency, keyForRequest, report);
+        Map<String, Long> lookups = new LinkedHashMap<>();
+        repositoryInvocations().forEach((method, count) ->
+            lookups.put(method, count < 0 ? count : count - Math.max(0, lookupsBefore.get(method))));
+        report.print(scenario, elapsed, lookups);
+    }
+
+    // Every request gets its own virtual thread, all of them wait for a common start signal and at most
+    // concurrency of them are in flight at any time.
+    private Duration fire(int requests, int concurrency, IntFunction<UUID> keyForRequest, LoadReport report)
+        throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(requests);
+        Semaphore inFlight = new Semaphore(concurrency);
+        for (int i = 0; i < requests; i++) {
+            URI uri = URI.create(baseUrl + PRODUCTS_PATH + "/" + keyForRequest.apply(i));
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    inFlight.acquire();
+                    try {
+                        get(uri, report);
+                    } finally {
+                        inFlight.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        done.await();
+        return Duration.ofNanos(System.nanoTime() - startedAt);
+    }
+
+    private void get(URI uri, LoadReport report) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(timeout).GET().build();
+        long startedAt = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            report.record(response.statusCode(), System.nanoTime() - startedAt);
+        } catch (IOException e) {
+            report.recordFailure(System.nanoTime() - startedAt);
+        }
+    }
+
+    private List<UUID> createProducts(int count) throws Exception {
+        List<UUID> ids = new ArrayList<>(count);
+        Semaphore inFlight = new Semaphore(64);
+        List<Future<UUID>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String body = objectMapper.writeValueAsString(Map.of(
+                "name", "Load test product " + i,
+                "description", "Created by the load generator",
+                "price", 19.99));
+            futures.add(executor.submit(() -> {
+                inFlight.acquire();
+                try {
+                    return createProduct(body);
+                } finally {
+                    inFlight.release();
+                }
+            }));
+        }
+        for (Future<UUID> future : futures) {
+            ids.add(future.get());
+        }
+        System.out.printf("Created %d products%n", ids.size());
+        return ids;
+    }
+
+    private UUID createProduct(String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + PRODUCTS_PATH))
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Creating a product failed with HTTP " + response.statusCode());
+        }
+        return objectMapper.readValue(response.body(), UUID.class);
+    }
+
+    // -1 when the metric cannot be read, e.g. because the metrics endpoint is not exposed
+    private Map<String, Long> repositoryInvocations() throws InterruptedException {
+        Map<String, Long> invocations = new LinkedHashMap<>();
+        boolean metricsExposed = metrics("").statusCode() == 200;
+        for (String method : REPOSITORY_METHODS) {
+            invocations.put(method, metricsExposed ? repositoryInvocations(method) : -1);
+        }
+        return invocations;
+    }
+
+    private long repositoryInvocations(String method) throws InterruptedException {
+        HttpResponse<String> response = metrics("/" + REPOSITORY_METRIC + "?tag=operation:" + method);
+        // The meter for a method only exists once that method has been invoked
+        if (response.statusCode() == 404) {
+            return 0;
+        }
+        if (response.statusCode() != 200) {
+            return -1;
+        }
+        try {
+            for (JsonNode measurement : objectMapper.readTree(response.body()).path("measurements")) {
+                if ("COUNT".equals(measurement.path("statistic").asText())) {
+                    return measurement.path("value").asLong();
+                }
+            }
+            return 0;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private HttpResponse<String> metrics(String path) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + METRICS_PATH + path))
+            .timeout(timeout)
+            .GET()
+            .build();
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read metrics from " + baseUrl, e);
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,50 @@
+package com.varunu28.thunderingherd.loadtest;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    // Latencies are recorded in microseconds, the histogram resizes itself for outliers
+    private final Histogram latencies = new ConcurrentHistogram(3);
+    private final Map<Integer, LongAdder> statusCodes = new ConcurrentSkipListMap<>();
+    private final LongAdder failures = new LongAdder();
+
+    void record(int statusCode, long latencyNanos) {
+        latencies.recordValue(Math.max(1, latencyNanos / 1_000));
+        statusCodes.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+    }
+
+    void recordFailure(long latencyNanos) {
+        latencies.recordValue(Math.max(1, latencyNanos / 1_000));
+        failures.increment();
+    }
+
+    void print(String scenario, Duration elapsed, Map<String, Long> databaseLookups) {
+        long requests = latencies.getTotalCount();
+        System.out.printf("%nScenario:    %s%n", scenario);
+        System.out.printf("Requests:    %d in %d ms (%.1f req/s)%n",
+            requests, elapsed.toMillis(), requests / Math.max(elapsed.toNanos() / 1e9, 1e-9));
+        statusCodes.forEach((code, count) -> System.out.printf("  HTTP %d:    %d%n", code, count.sum()));
+        if (failures.sum() > 0) {
+            System.out.printf("  failed:      %d%n", failures.sum());
+        }
+        System.out.println("Latency (ms):");
+        for (double percentile : PERCENTILES) {
+            System.out.printf("  p%-9s %.3f%n", format(percentile), latencies.getValueAtPercentile(percentile) / 1_000.0);
+        }
+        System.out.printf("  max        %.3f%n", latencies.getMaxValue() / 1_000.0);
+        System.out.println("Repository calls that reached Postgres:");
+        databaseLookups.forEach((method, count) -> System.out.printf("  %-12s %s%n", method, count < 0 ? "n/a" : count));
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
@@ -0,0 +1,203 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.varunu28.thunderingherd.model.Product;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Compact, versioned binary layout for {@link CachedProduct}:
+ *
+ * <pre>
+ * magic(1) version(1) flags(1) computeMillis(8) softExpiresAt(8) expiresAt(8)
+ * -- unless tombstone --
+ * id(16) name(len32 + utf8) description(len32 + utf8 | len32 + rawLen32 + deflate) price(unscaled64 + scale32)
+ * launchedAt(8) rowVersion(8, since version 2) updatedAt(8, since version 3)
+ * </pre>
+ *
+ * A length of -1 encodes {@code null}. Decoders must keep accepting every version they have ever written.
+ */
+public class BinaryCachedProductCodec {
+
+    public static final byte MAGIC = (byte) 0xC7;
+    static final byte VERSION_1 = 1;
+    static final byte VERSION_2 = 2;
+    static final byte VERSION_3 = 3;
+
+    private static final int HEADER_SIZE = 3 + 3 * Long.BYTES;
+    private static final int FLAG_TOMBSTONE = 1;
+    private static final int FLAG_COMPRESSED_DESCRIPTION = 1 << 1;
+    private static final int NULL_LENGTH = -1;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private final int compressionThreshold;
+
+    public BinaryCachedProductCodec(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public byte[] encode(CachedProduct entry) {
+        Product product = entry.product();
+        if (product == null) {
+            return header(HEADER_SIZE, FLAG_TOMBSTONE, entry).array();
+        }
+        byte[] name = utf8(product.getName());
+        byte[] description = utf8(product.getDescription());
+        int rawDescriptionLength = description == null ? NULL_LENGTH : description.length;
+        int flags = 0;
+        if (description != null && compressionThreshold > 0 && description.length > compressionThreshold) {
+            byte[] compressed = deflate(description);
+            if (compressed.length < description.length) {
+                description = compressed;
+                flags |= FLAG_COMPRESSED_DESCRIPTION;
+            }
+        }
+        BigDecimal price = product.getPrice();
+        if (price != null && price.unscaledValue().bitLength() > 63) {
+            throw new SerializationException("Price " + price + " does not fit the binary product layout");
+        }
+
+        int size = HEADER_SIZE + 2 * Long.BYTES
+            + Integer.BYTES + length(name)
+            + Integer.BYTES + length(description) + ((flags & FLAG_COMPRESSED_DESCRIPTION) != 0 ? Integer.BYTES : 0)
+            + Long.BYTES + Integer.BYTES
+            + 3 * Long.BYTES;
+        ByteBuffer buffer = header(size, flags, entry);
+        buffer.putLong(product.getId().getMostSignificantBits());
+        buffer.putLong(product.getId().getLeastSignificantBits());
+        putBytes(buffer, name);
+        if ((flags & FLAG_COMPRESSED_DESCRIPTION) != 0) {
+            buffer.putInt(description.length);
+            buffer.putInt(rawDescriptionLength);
+            buffer.put(description);
+        } else {
+            putBytes(buffer, description);
+        }
+        // A null price is encoded with a negative scale sentinel
+        buffer.putLong(price == null ? 0 : price.unscaledValue().longValue());
+        buffer.putInt(price == null ? Integer.MIN_VALUE : price.scale());
+        buffer.putLong(product.getLaunchedAt() == null ? NULL_DATE : product.getLaunchedAt().getTime());
+        buffer.putLong(product.getVersion());
+        buffer.putLong(product.getUpdatedAt() == null ? NULL_DATE : product.getUpdatedAt().getTime());
+        return buffer.array();
+    }
+
+    public CachedProduct decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.get() != MAGIC) {
+            throw new SerializationException("Not a binary product entry");
+        }
+        byte version = buffer.get();
+        if (version < VERSION_1 || version > VERSION_3) {
+            throw new SerializationException("Unsupported binary product entry version " + version);
+        }
+        int flags = buffer.get();
+        long computeMillis = buffer.getLong();
+        long softExpiresAt = buffer.getLong();
+        long expiresAt = buffer.getLong();
+        if ((flags & FLAG_TOMBSTONE) != 0) {
+            return new CachedProduct(null, computeMillis, softExpiresAt, expiresAt);
+        }
+
+        UUID id = new UUID(buffer.getLong(), buffer.getLong());
+        String name = getString(buffer);
+        String description;
+        if ((flags & FLAG_COMPRESSED_DESCRIPTION) != 0) {
+            byte[] compressed = new byte[buffer.getInt()];
+            int rawLength = buffer.getInt();
+            buffer.get(compressed);
+            description = new String(inflate(compressed, rawLength), StandardCharsets.UTF_8);
+        } else {
+            description = getString(buffer);
+        }
+        long unscaledPrice = buffer.getLong();
+        int scale = buffer.getInt();
+        BigDecimal price = scale == Integer.MIN_VALUE ? null : BigDecimal.valueOf(unscaledPrice, scale);
+        long launchedAt = buffer.getLong();
+        Date launchedAtDate = launchedAt == NULL_DATE ? null : new Date(launchedAt);
+        long rowVersion = version >= VERSION_2 ? buffer.getLong() : 0;
+        // Older entries don't know when the row last changed, which leaves their responses without Last-Modified
+        long updatedAt = version >= VERSION_3 ? buffer.getLong() : NULL_DATE;
+        Date updatedAtDate = updatedAt == NULL_DATE ? null : new Date(updatedAt);
+        Product product = new Product(id, name, description, price, launchedAtDate, updatedAtDate, rowVersion);
+        return new CachedProduct(product, computeMillis, softExpiresAt, expiresAt);
+    }
+
+    private static ByteBuffer header(int size, int flags, CachedProduct entry) {
+        return ByteBuffer.allocate(size)
+            .put(MAGIC)
+            .put(VERSION_3)
+            .put((byte) flags)
+            .putLong(entry.computeMillis())
+            .putLong(entry.softExpiresAt())
+            .putLong(entry.expiresAt());
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(NULL_LENGTH);
+        } else {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(input.length);
+            byte[] chunk = new byte[1024];
+            while (!deflater.finished()) {
+                output.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            byte[] output = new byte[rawLength];
+            int inflated = 0;
+            while (inflated < rawLength && !inflater.finished()) {
+                inflated += inflater.inflate(output, inflated, rawLength - inflated);
+            }
+            return inflated == rawLength ? output : Arrays.copyOf(output, inflated);
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupt compressed product description", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
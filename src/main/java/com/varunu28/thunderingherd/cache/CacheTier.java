@@ -0,0 +1,19 @@
+package com.varunu28.thunderingherd.cache;
+
+public enum CacheTier {
+    L1("l1"),
+    REDIS("redis"),
+    FALLBACK("fallback"),
+    // Rendered pages of the product listing, see ProductPageCache
+    PAGE("page");
+
+    private final String tagValue;
+
+    CacheTier(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    public String tagValue() {
+        return tagValue;
+    }
+}
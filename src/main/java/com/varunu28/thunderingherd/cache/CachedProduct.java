@@ -0,0 +1,32 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.varunu28.thunderingherd.model.Product;
+
+/**
+ * Value stored in Redis for a product. Besides the product itself it records how long the database load
+ * took, when the entry turns stale and when it expires, which is what probabilistic early expiration and
+ * stale-while-revalidate need to decide whether a reader should refresh the entry ahead of time.
+ * A {@code null} product is a tombstone for an id that does not exist.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CachedProduct(Product product, long computeMillis, long softExpiresAt, long expiresAt) {
+
+    @JsonIgnore
+    public boolean isTombstone() {
+        return product == null;
+    }
+
+    public boolean isStale(long nowMillis) {
+        return nowMillis >= softExpiresAt;
+    }
+
+    /**
+     * XFetch: the closer the entry is to its expiry and the more expensive it was to compute, the more
+     * likely a reader is to volunteer for the refresh. {@code random} must be in (0, 1].
+     */
+    public boolean shouldRecomputeEarly(long nowMillis, double beta, double random) {
+        return nowMillis - computeMillis * beta * Math.log(random) >= expiresAt;
+    }
+}
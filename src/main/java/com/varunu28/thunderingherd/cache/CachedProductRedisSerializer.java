@@ -0,0 +1,51 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.varunu28.thunderingherd.config.RedisCacheProperties;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+public class CachedProductRedisSerializer implements RedisSerializer<CachedProduct> {
+
+    private final GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+    private final BinaryCachedProductCodec binaryCodec;
+    private final RedisCacheProperties.Codec.Format writeFormat;
+
+    public CachedProductRedisSerializer(RedisCacheProperties.Codec codec) {
+        this.binaryCodec = new BinaryCachedProductCodec(codec.compressionThreshold());
+        this.writeFormat = codec.format();
+    }
+
+    @Override
+    public byte[] serialize(CachedProduct value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        return switch (writeFormat) {
+            case JSON -> jsonSerializer.serialize(value);
+            case BINARY -> binaryCodec.encode(value);
+        };
+    }
+
+    @Override
+    public CachedProduct deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        // Both formats are always readable so entries written before a format switch stay valid until they expire
+        if (bytes[0] == BinaryCachedProductCodec.MAGIC) {
+            return binaryCodec.decode(bytes);
+        }
+        Object value = jsonSerializer.deserialize(bytes);
+        if (value instanceof CachedProduct cachedProduct) {
+            return cachedProduct;
+        }
+        throw new SerializationException(
+            "Unexpected cached value of type " + (value == null ? null : value.getClass()));
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return CachedProduct.class;
+    }
+}
@@ -0,0 +1,107 @@
+package com.varunu28.thunderingherd.cache;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Streaming heavy hitter detection over UUIDs: a Count-Min sketch estimates how often every id was seen and a
+ * small top-K set keeps the ids with the highest estimates. Counts are halved on every {@link #decay()}, so
+ * estimates follow recent traffic instead of growing forever.
+ */
+public class HotKeySketch {
+
+    private final AtomicLongArray counters;
+    private final int width;
+    private final int depth;
+    private final int capacity;
+    private final Map<UUID, Long> topK = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    // Smallest estimate in a full top-K set, anything at or below it can't get in
+    private volatile long admissionThreshold;
+
+    public HotKeySketch(int width, int depth, int capacity) {
+        this.width = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.depth = depth;
+        this.capacity = capacity;
+        this.counters = new AtomicLongArray(this.width * depth);
+    }
+
+    /**
+     * Counts one occurrence of {@code id} and returns its estimated frequency, which never undercounts.
+     */
+    public long record(UUID id) {
+        long hash1 = mix(id.getMostSignificantBits());
+        long hash2 = mix(id.getLeastSignificantBits());
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = (int) ((hash1 + row * hash2) & (width - 1));
+            estimate = Math.min(estimate, counters.incrementAndGet(row * width + column));
+        }
+        if (estimate <= admissionThreshold) {
+            return estimate;
+        }
+        // Ids already in the top-K are updated without taking the lock, only admissions are serialized
+        if (topK.replace(id, estimate) == null) {
+            synchronized (lock) {
+                admit(id, estimate);
+            }
+        }
+        return estimate;
+    }
+
+    public List<HotKey> topK() {
+        return topK.entrySet().stream()
+            .map(entry -> new HotKey(entry.getKey(), entry.getValue()))
+            .sorted(Comparator.comparingLong(HotKey::estimate).reversed())
+            .toList();
+    }
+
+    // Increments racing with the halving may get lost, which is fine for an estimate
+    public void decay() {
+        synchronized (lock) {
+            for (int i = 0; i < counters.length(); i++) {
+                counters.set(i, counters.get(i) >>> 1);
+            }
+            topK.replaceAll((id, estimate) -> estimate >>> 1);
+            topK.values().removeIf(estimate -> estimate == 0);
+            updateAdmissionThreshold();
+        }
+    }
+
+    private void admit(UUID id, long estimate) {
+        if (topK.size() >= capacity && !topK.containsKey(id)) {
+            Map.Entry<UUID, Long> coldest = topK.entrySet().stream()
+                .min(Map.Entry.comparingByValue())
+                .orElseThrow();
+            if (coldest.getValue() >= estimate) {
+                return;
+            }
+            topK.remove(coldest.getKey());
+        }
+        topK.put(id, estimate);
+        updateAdmissionThreshold();
+    }
+
+    private void updateAdmissionThreshold() {
+        admissionThreshold = topK.size() < capacity
+            ? 0
+            : topK.values().stream().mapToLong(Long::longValue).min().orElse(0);
+    }
+
+    // MurmurHash3 finalizer
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    public record HotKey(UUID id, long estimate) {
+    }
+}
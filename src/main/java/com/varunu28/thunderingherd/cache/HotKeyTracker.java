@@ -0,0 +1,67 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.varunu28.thunderingherd.config.HotKeyProperties;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks how often each product id is read so the hottest ones can be pinned locally before a single key
+ * saturates Redis. Frequencies decay every {@code decayInterval}, so a key only stays hot while it keeps
+ * being read.
+ */
+@Component
+public class HotKeyTracker {
+
+    private final boolean enabled;
+    private final long promotionThreshold;
+    private final HotKeySketch sketch;
+    private final ScheduledExecutorService scheduler;
+
+    public HotKeyTracker(HotKeyProperties properties) {
+        this.enabled = properties.enabled();
+        this.promotionThreshold = properties.promotionThreshold();
+        this.sketch = new HotKeySketch(properties.sketchWidth(), properties.sketchDepth(), properties.topK());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("product-hot-key-decay").daemon().factory());
+        if (enabled) {
+            long decayMillis = properties.decayInterval().toMillis();
+            scheduler.scheduleAtFixedRate(sketch::decay, decayMillis, decayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(UUID id) {
+        if (enabled) {
+            sketch.record(id);
+        }
+    }
+
+    public List<HotKeySketch.HotKey> topK() {
+        return sketch.topK();
+    }
+
+    public long promotionThreshold() {
+        return promotionThreshold;
+    }
+
+    // The top-K ids whose decayed frequency reached the promotion threshold
+    public List<UUID> hotKeys() {
+        return sketch.topK().stream()
+            .filter(hotKey -> hotKey.estimate() >= promotionThreshold)
+            .map(HotKeySketch.HotKey::id)
+            .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
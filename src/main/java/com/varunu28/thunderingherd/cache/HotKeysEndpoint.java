@@ -0,0 +1,38 @@
+package com.varunu28.thunderingherd.cache;
+
+import java.util.List;
+import java.util.UUID;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/hotkeys}: the most frequently read product ids on this instance, with their decayed
+ * frequency estimate and whether they are currently pinned in the near cache.
+ */
+@Component
+@Endpoint(id = "hotkeys")
+public class HotKeysEndpoint {
+
+    private final HotKeyTracker hotKeyTracker;
+    private final ProductNearCache nearCache;
+
+    public HotKeysEndpoint(HotKeyTracker hotKeyTracker, ProductNearCache nearCache) {
+        this.hotKeyTracker = hotKeyTracker;
+        this.nearCache = nearCache;
+    }
+
+    @ReadOperation
+    public HotKeysReport hotKeys() {
+        List<HotKeyReport> keys = hotKeyTracker.topK().stream()
+            .map(hotKey -> new HotKeyReport(hotKey.id(), hotKey.estimate(), nearCache.isPinned(hotKey.id())))
+            .toList();
+        return new HotKeysReport(hotKeyTracker.isEnabled(), hotKeyTracker.promotionThreshold(), keys);
+    }
+
+    public record HotKeysReport(boolean enabled, long promotionThreshold, List<HotKeyReport> keys) {
+    }
+
+    public record HotKeyReport(UUID id, long estimate, boolean pinned) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.varunu28.thunderingherd.model.Product;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Strong ETag of a product, a hash over everything the product response carries. Equal content always yields
+ * the same tag, whichever cache tier or instance computed it, so it can be written next to the Redis entry and
+ * compared against {@code If-None-Match} without touching the product again.
+ */
+public final class ProductETag {
+
+    private static final int TAG_BYTES = 12;
+    private static final char SEPARATOR = '\u001f';
+
+    private ProductETag() {
+    }
+
+    public static String of(Product product) {
+        StringBuilder content = new StringBuilder(128)
+            .append(product.getId()).append(SEPARATOR)
+            .append(product.getName()).append(SEPARATOR)
+            .append(product.getDescription()).append(SEPARATOR)
+            // 12.5 and 12.50 render the same response, so they get the same tag
+            .append(product.getPrice() == null ? null : product.getPrice().stripTrailingZeros().toPlainString())
+            .append(SEPARATOR)
+            .append(product.getLaunchedAt() == null ? null : product.getLaunchedAt().getTime());
+        byte[] digest = sha256().digest(content.toString().getBytes(StandardCharsets.UTF_8));
+        return '"' + HexFormat.of().formatHex(digest, 0, TAG_BYTES) + '"';
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every Java platform", e);
+        }
+    }
+}
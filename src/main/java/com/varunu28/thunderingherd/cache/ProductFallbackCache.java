@@ -0,0 +1,42 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.varunu28.thunderingherd.config.RedisCircuitBreakerProperties;
+import com.varunu28.thunderingherd.model.Product;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local stand-in for Redis while it is unavailable. Only products loaded in degraded mode end up here, since
+ * their backfill is skipped, and only lookups that could not reach Redis read from it. Without pub/sub nobody can
+ * invalidate these entries, so the TTL is what bounds their staleness.
+ */
+@Component
+public class ProductFallbackCache {
+
+    private final boolean enabled;
+    private final Cache<UUID, Product> cache;
+
+    public ProductFallbackCache(RedisCircuitBreakerProperties properties) {
+        this.enabled = properties.enabled();
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.fallback().maximumSize())
+            .expireAfterWrite(properties.fallback().ttl())
+            .build();
+    }
+
+    public Product getIfPresent(UUID id) {
+        return enabled ? cache.getIfPresent(id) : null;
+    }
+
+    public void put(UUID id, Product product) {
+        if (enabled) {
+            cache.put(id, product);
+        }
+    }
+
+    public void invalidate(UUID id) {
+        cache.invalidate(id);
+    }
+}
@@ -0,0 +1,119 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.varunu28.thunderingherd.config.BloomFilterProperties;
+import com.varunu28.thunderingherd.repository.ProductRepository;
+import com.varunu28.thunderingherd.resilience.CallNotPermittedException;
+import com.varunu28.thunderingherd.resilience.RedisCircuitBreaker;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Set of every existing product id, used to reject lookups for unknown ids without any I/O. The filter is
+ * filled from the database once the application is up and every instance publishes the ids it creates so
+ * that the others learn about them too. Until the initial load has finished every id is let through.
+ */
+@Component
+public class ProductIdBloomFilter implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductIdBloomFilter.class);
+
+    private final boolean enabled;
+    private final String creationChannel;
+    private final UuidBloomFilter filter;
+    private final ProductRepository productRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private volatile boolean loaded;
+
+    public ProductIdBloomFilter(
+        BloomFilterProperties properties,
+        ProductRepository productRepository,
+        StringRedisTemplate stringRedisTemplate,
+        RedisCircuitBreaker circuitBreaker) {
+        this.enabled = properties.enabled();
+        this.creationChannel = properties.creationChannel();
+        this.filter = enabled
+            ? new UuidBloomFilter(properties.expectedInsertions(), properties.falsePositiveProbability())
+            : null;
+        this.productRepository = productRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        try (Stream<UUID> ids = productRepository.streamAllIds()) {
+            ids.forEach(filter::add);
+        }
+        loaded = true;
+    }
+
+    public boolean mightContain(UUID id) {
+        return !enabled || !loaded || filter.mightContain(id);
+    }
+
+    public void add(UUID id) {
+        if (enabled) {
+            filter.add(id);
+            publish(() -> stringRedisTemplate.convertAndSend(creationChannel, id.toString()));
+        }
+    }
+
+    // Publishes the whole batch in one pipelined round trip
+    public void addAll(Collection<UUID> ids) {
+        if (!enabled) {
+            return;
+        }
+        ids.forEach(filter::add);
+        byte[] channel = creationChannel.getBytes(StandardCharsets.UTF_8);
+        publish(() -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            ids.forEach(id -> connection.publish(channel, id.toString().getBytes(StandardCharsets.UTF_8)));
+            return null;
+        }));
+    }
+
+    // The ids are committed and in the local filter, the other instances just miss them until they reload theirs
+    private void publish(Supplier<?> command) {
+        try {
+            circuitBreaker.execute(command);
+        } catch (RuntimeException e) {
+            if (!(e instanceof CallNotPermittedException)) {
+                log.warn("Failed to publish created product ids: {}", e.toString());
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (!enabled) {
+            return;
+        }
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        UUID id;
+        try {
+            id = UUID.fromString(body);
+        } catch (IllegalArgumentException e) {
+            // Anybody can publish on the channel, a bad message must not break the listener container
+            log.warn("Ignoring malformed product creation message '{}'", body);
+            return;
+        }
+        filter.add(id);
+    }
+}
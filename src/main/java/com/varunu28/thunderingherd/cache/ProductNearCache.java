@@ -0,0 +1,143 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.varunu28.thunderingherd.config.NearCacheProperties;
+import com.varunu28.thunderingherd.model.Product;
+import com.varunu28.thunderingherd.resilience.CallNotPermittedException;
+import com.varunu28.thunderingherd.resilience.RedisCircuitBreaker;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process L1 tier consulted before Redis. Entries are bounded by size and TTL, and every instance
+ * broadcasts invalidations over Redis pub/sub whenever it writes a fresh value to Redis, so that the
+ * other instances drop their local copy instead of serving it until the TTL runs out.
+ * Hot keys can additionally be pinned: pinned entries are neither evicted nor expired, they stay until they are
+ * unpinned or invalidated.
+ */
+@Component
+public class ProductNearCache implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductNearCache.class);
+    private static final String MESSAGE_SEPARATOR = "|";
+
+    private final boolean enabled;
+    private final String invalidationChannel;
+    private final String nodeId;
+    private final Cache<UUID, Product> cache;
+    private final Map<UUID, Product> pinned = new ConcurrentHashMap<>();
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    public ProductNearCache(
+        NearCacheProperties properties,
+        StringRedisTemplate stringRedisTemplate,
+        RedisCircuitBreaker circuitBreaker) {
+        this.enabled = properties.enabled();
+        this.invalidationChannel = properties.invalidationChannel();
+        this.nodeId = UUID.randomUUID().toString();
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.maximumSize())
+            .expireAfterWrite(properties.ttl())
+            .build();
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Product getIfPresent(UUID id) {
+        if (!enabled) {
+            return null;
+        }
+        Product product = pinned.get(id);
+        return product != null ? product : cache.getIfPresent(id);
+    }
+
+    public void put(UUID id, Product product) {
+        if (enabled) {
+            cache.put(id, product);
+        }
+    }
+
+    public void pin(UUID id, Product product) {
+        if (enabled) {
+            pinned.put(id, product);
+        }
+    }
+
+    public void unpin(UUID id) {
+        pinned.remove(id);
+    }
+
+    public void retainPinned(Collection<UUID> ids) {
+        pinned.keySet().retainAll(ids);
+    }
+
+    public boolean isPinned(UUID id) {
+        return pinned.containsKey(id);
+    }
+
+    public int pinnedCount() {
+        return pinned.size();
+    }
+
+    public void invalidate(UUID id) {
+        cache.invalidate(id);
+        pinned.remove(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        pinned.clear();
+    }
+
+    // Called after the database write has committed, so a failed publish is logged rather than failing the request
+    public void broadcastInvalidation(UUID id) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            circuitBreaker.execute(() ->
+                stringRedisTemplate.convertAndSend(invalidationChannel, nodeId + MESSAGE_SEPARATOR + id));
+        } catch (RuntimeException e) {
+            if (!(e instanceof CallNotPermittedException)) {
+                log.warn("Failed to broadcast the invalidation of product {}: {}", id, e.toString());
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(MESSAGE_SEPARATOR);
+        if (separator < 0 || body.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        UUID id;
+        try {
+            id = UUID.fromString(body.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            // Anybody can publish on the channel, a bad message must not break the listener container
+            log.warn("Ignoring malformed invalidation message '{}'", body);
+            return;
+        }
+        invalidate(id);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
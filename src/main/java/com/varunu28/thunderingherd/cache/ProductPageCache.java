@@ -0,0 +1,109 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.varunu28.thunderingherd.config.ListingProperties;
+import com.varunu28.thunderingherd.metrics.ProductCacheMetrics;
+import com.varunu28.thunderingherd.resilience.RedisCircuitBreaker;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Supplier;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rendered pages of the product listing. Page keys embed a generation counter, and every write that can change a
+ * listing increments it: readers move on to keys nobody has written yet, and the old pages simply expire. A page
+ * rendered while the counter moved is stored under the generation read before the database query, so it can't be
+ * served once it's stale.
+ */
+@Component
+public class ProductPageCache {
+
+    private static final String PAGE_KEY_PREFIX = "products:page:";
+    private static final String GENERATION_KEY = PAGE_KEY_PREFIX + "generation";
+    private static final String FIRST_PAGE = "first";
+
+    // Reads the generation and the page stored under it in one step, so no INCR can fall in between
+    private static final byte[] READ_PAGE = utf8("""
+        local generation = redis.call('GET', KEYS[1]) or '0'
+        return {generation, redis.call('GET', ARGV[1] .. generation .. ARGV[2])}
+        """);
+
+    public record Lookup(long generation, byte[] page) {
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final ListingProperties.PageCache properties;
+    private final ProductCacheMetrics cacheMetrics;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    public ProductPageCache(
+        StringRedisTemplate redisTemplate,
+        ListingProperties properties,
+        ProductCacheMetrics cacheMetrics,
+        RedisCircuitBreaker circuitBreaker) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties.cache();
+        this.cacheMetrics = cacheMetrics;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    // Page 0 is the first page, pages further down the listing are never cached
+    public boolean caches(int page) {
+        return properties.enabled() && page < properties.cachedPages();
+    }
+
+    /**
+     * Reads the current generation and the page stored under it, {@code page} is {@code null} on a miss.
+     * {@code cursor} is {@code null} for the first page.
+     */
+    public Lookup get(int limit, String cursor) {
+        return call("getPage", () -> redisTemplate.execute((RedisCallback<Lookup>) connection -> {
+            List<byte[]> result = connection.scriptingCommands().eval(
+                READ_PAGE,
+                ReturnType.MULTI,
+                1,
+                utf8(GENERATION_KEY),
+                utf8(PAGE_KEY_PREFIX),
+                utf8(pageKeySuffix(limit, cursor)));
+            long generation = Long.parseLong(new String(result.get(0), StandardCharsets.US_ASCII));
+            // A missing page ends the Lua table early instead of showing up as a null element
+            return new Lookup(generation, result.size() > 1 ? result.get(1) : null);
+        }));
+    }
+
+    public void put(long generation, int limit, String cursor, byte[] page) {
+        call("putPage", () -> redisTemplate.execute((RedisCallback<Boolean>) connection ->
+            connection.stringCommands().set(
+                utf8(pageKey(generation, limit, cursor)),
+                page,
+                Expiration.from(properties.ttl()),
+                RedisStringCommands.SetOption.upsert())));
+    }
+
+    // Retires every cached page at once
+    public void invalidateAll() {
+        if (properties.enabled()) {
+            call("invalidatePages", () -> redisTemplate.opsForValue().increment(GENERATION_KEY));
+        }
+    }
+
+    static String pageKey(long generation, int limit, String cursor) {
+        return PAGE_KEY_PREFIX + generation + pageKeySuffix(limit, cursor);
+    }
+
+    private static String pageKeySuffix(int limit, String cursor) {
+        return ":" + limit + ":" + (cursor == null ? FIRST_PAGE : cursor);
+    }
+
+    private <T> T call(String operation, Supplier<T> command) {
+        return circuitBreaker.execute(() -> cacheMetrics.recordRedisOperation(operation, command));
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,121 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.varunu28.thunderingherd.config.ResponseCacheProperties;
+import com.varunu28.thunderingherd.dto.GetProductDto;
+import com.varunu28.thunderingherd.model.Product;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Renders the {@link GetProductDto} body of a product once so that it can be cached in Redis next to the
+ * entry and written to clients as is. The cached value is framed as
+ *
+ * <pre>
+ * etag '\n' lastModified '\n' json
+ * </pre>
+ *
+ * and lives under a key that ends in a fingerprint of the DTO schema and the configured version. Changing either
+ * moves readers to new keys, so bodies rendered for another schema are never served and simply expire.
+ */
+@Component
+public class ProductResponseCodec {
+
+    private static final String KEY_SUFFIX = ":response:";
+    private static final byte SEPARATOR = '\n';
+    // Part of the fingerprint, bumped when the meaning of a framed field changes: 2 took lastModified from updated_at
+    private static final String LAYOUT = "2";
+
+    private final ObjectWriter writer;
+    private final boolean enabled;
+    private final String keySuffix;
+
+    public ProductResponseCodec(ObjectMapper objectMapper, ResponseCacheProperties properties) {
+        this.writer = objectMapper.writerFor(GetProductDto.class);
+        this.enabled = properties.enabled();
+        this.keySuffix = KEY_SUFFIX + fingerprint(GetProductDto.class, properties.version());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String key(String entryKey) {
+        return entryKey + keySuffix;
+    }
+
+    public SerializedProductResponse render(Product product) {
+        try {
+            return new SerializedProductResponse(
+                ProductETag.of(product), lastModified(product), writer.writeValueAsBytes(GetProductDto.from(product)));
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Could not render product " + product.getId(), e);
+        }
+    }
+
+    public byte[] encode(SerializedProductResponse response) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(response.body().length + 48);
+        output.writeBytes(response.etag().getBytes(StandardCharsets.UTF_8));
+        output.write(SEPARATOR);
+        output.writeBytes(Long.toString(response.lastModified()).getBytes(StandardCharsets.US_ASCII));
+        output.write(SEPARATOR);
+        output.writeBytes(response.body());
+        return output.toByteArray();
+    }
+
+    public SerializedProductResponse decode(byte[] bytes) {
+        int etagEnd = indexOf(bytes, 0);
+        int lastModifiedEnd = etagEnd < 0 ? -1 : indexOf(bytes, etagEnd + 1);
+        if (lastModifiedEnd < 0) {
+            throw new SerializationException("Not a framed product response");
+        }
+        return new SerializedProductResponse(
+            new String(bytes, 0, etagEnd, StandardCharsets.UTF_8),
+            Long.parseLong(new String(bytes, etagEnd + 1, lastModifiedEnd - etagEnd - 1, StandardCharsets.US_ASCII)),
+            Arrays.copyOfRange(bytes, lastModifiedEnd + 1, bytes.length));
+    }
+
+    /**
+     * Hash over the JSON names and Java types of the record's components, so renaming, retyping, adding or
+     * removing a field of the response yields another fingerprint.
+     */
+    static String fingerprint(Class<? extends Record> dto, String version) {
+        StringBuilder schema = new StringBuilder(dto.getName()).append('#').append(LAYOUT).append('#').append(version);
+        for (RecordComponent component : dto.getRecordComponents()) {
+            JsonProperty property = component.getAnnotation(JsonProperty.class);
+            schema.append(';')
+                .append(property == null ? component.getName() : property.value())
+                .append(':')
+                .append(component.getGenericType().getTypeName());
+        }
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(schema.toString().getBytes(StandardCharsets.UTF_8)), 0, 4);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every Java platform", e);
+        }
+    }
+
+    private static long lastModified(Product product) {
+        return product.getUpdatedAt() == null ? -1 : product.getUpdatedAt().getTime();
+    }
+
+    private static int indexOf(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == SEPARATOR) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,83 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.varunu28.thunderingherd.model.Product;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link RedisProductCache} for the reactive profile. It writes the same keys,
+ * entries, ETags and TTLs, so both stacks can share one Redis.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveRedisProductCache {
+
+    private final ReactiveRedisTemplate<String, CachedProduct> redisTemplate;
+    private final ReactiveStringRedisTemplate stringRedisTemplate;
+    private final RedisProductCache redisCache;
+
+    public ReactiveRedisProductCache(
+        ReactiveRedisTemplate<String, CachedProduct> reactiveRedisTemplate,
+        ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+        RedisProductCache redisCache) {
+        this.redisTemplate = reactiveRedisTemplate;
+        this.stringRedisTemplate = reactiveStringRedisTemplate;
+        this.redisCache = redisCache;
+    }
+
+    public Mono<CachedProduct> get(UUID id) {
+        return redisTemplate.opsForValue().get(RedisProductCache.key(id));
+    }
+
+    public Mono<String> getETag(UUID id) {
+        return stringRedisTemplate.opsForValue().get(RedisProductCache.etagKey(id));
+    }
+
+    // Positional like RedisProductCache.getAll, with null for ids that are not cached
+    public Mono<List<CachedProduct>> getAll(List<UUID> ids) {
+        return redisTemplate.opsForValue().multiGet(ids.stream().map(RedisProductCache::key).toList());
+    }
+
+    // Goes through the same version check as RedisProductCache.put, a stale load is silently dropped
+    public Mono<Void> put(UUID id, Product product, long computeMillis) {
+        Duration ttl = redisCache.ttlFor(product);
+        CachedProduct entry = redisCache.entry(product, computeMillis, ttl);
+        return redisTemplate.execute(
+                RedisProductCache.WRITE_ENTRY,
+                redisCache.writeKeys(id),
+                redisCache.writeArgs(null, entry, ttl),
+                RedisElementWriter.from(RedisSerializer.byteArray()),
+                RedisElementReader.from(new GenericToStringSerializer<>(Long.class)))
+            .then();
+    }
+
+    public Mono<Void> putTombstone(UUID id) {
+        return put(id, null, 0);
+    }
+
+    // Lettuce pipelines commands issued concurrently on its shared connection, so this is one round trip too
+    public Mono<Void> putAll(Map<UUID, Product> products, Collection<UUID> missingIds, long computeMillis) {
+        return Flux.concat(
+                Flux.fromIterable(products.entrySet())
+                    .flatMap(entry -> put(entry.getKey(), entry.getValue(), computeMillis)),
+                Flux.fromIterable(missingIds).flatMap(this::putTombstone))
+            .then();
+    }
+
+    public boolean shouldRefresh(CachedProduct entry) {
+        return redisCache.isStale(entry) || redisCache.shouldRecomputeEarly(entry);
+    }
+}
@@ -0,0 +1,377 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.varunu28.thunderingherd.config.LeaseProperties;
+import com.varunu28.thunderingherd.config.RedisCacheProperties;
+import com.varunu28.thunderingherd.metrics.ProductCacheMetrics;
+import com.varunu28.thunderingherd.model.Product;
+import com.varunu28.thunderingherd.resilience.RedisCircuitBreaker;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RedisProductCache {
+
+    private static final String PRODUCT_CACHE_KEY_PREFIX = "product:";
+    private static final String LEASE_KEY_SUFFIX = ":lease";
+    private static final String ETAG_KEY_SUFFIX = ":etag";
+    private static final String VERSION_KEY_SUFFIX = ":version";
+
+    /**
+     * Writes an entry together with its ETag and rendered response. With a lease token it only does so while that
+     * lease is still held, since an invalidation in between deletes it. A product is also refused when the version
+     * key already records a newer row version, so a load that raced with an update can't overwrite its result.
+     * <pre>
+     * KEYS: entry, lease, etag, version[, response]
+     * ARGV: lease token or '', entry, ttl, etag or '' for a tombstone, etag ttl, row version or ''[, response]
+     * </pre>
+     */
+    static final RedisScript<Long> WRITE_ENTRY = new DefaultRedisScript<>("""
+        if ARGV[1] ~= '' and redis.call('GET', KEYS[2]) ~= ARGV[1] then
+            return 0
+        end
+        if ARGV[6] ~= '' then
+            local known = redis.call('GET', KEYS[4])
+            if known and tonumber(known) > tonumber(ARGV[6]) then
+                return 0
+            end
+            redis.call('SET', KEYS[4], ARGV[6], 'PX', ARGV[3])
+        end
+        redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+        if ARGV[4] == '' then
+            redis.call('DEL', KEYS[3])
+        else
+            redis.call('SET', KEYS[3], ARGV[4], 'PX', ARGV[5])
+        end
+        if KEYS[5] then
+            if ARGV[7] == '' then
+                redis.call('DEL', KEYS[5])
+            else
+                redis.call('SET', KEYS[5], ARGV[7], 'PX', ARGV[5])
+            end
+        end
+        if ARGV[1] ~= '' then
+            redis.call('DEL', KEYS[2])
+        end
+        return 1
+        """, Long.class);
+
+    // Records the new row version first, so that later invalidations for the same version, and backfills of
+    // anything older, are no-ops
+    private static final RedisScript<Long> INVALIDATE_OLDER = new DefaultRedisScript<>("""
+        local known = redis.call('GET', KEYS[1])
+        if known and tonumber(known) >= tonumber(ARGV[1]) then
+            return 0
+        end
+        redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+        redis.call('DEL', KEYS[2], KEYS[3], KEYS[4], KEYS[5])
+        return 1
+        """, Long.class);
+
+    private static final RedisScript<Long> RELEASE_LEASE = new DefaultRedisScript<>("""
+        if redis.call('GET', KEYS[1]) == ARGV[1] then
+            return redis.call('DEL', KEYS[1])
+        end
+        return 0
+        """, Long.class);
+
+    private final RedisTemplate<String, CachedProduct> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisCacheProperties properties;
+    private final LeaseProperties leaseProperties;
+    private final ProductCacheMetrics cacheMetrics;
+    private final ProductResponseCodec responseCodec;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    public RedisProductCache(
+        RedisTemplate<String, CachedProduct> redisTemplate,
+        StringRedisTemplate stringRedisTemplate,
+        RedisCacheProperties properties,
+        LeaseProperties leaseProperties,
+        ProductCacheMetrics cacheMetrics,
+        ProductResponseCodec responseCodec,
+        RedisCircuitBreaker circuitBreaker) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.properties = properties;
+        this.leaseProperties = leaseProperties;
+        this.cacheMetrics = cacheMetrics;
+        this.responseCodec = responseCodec;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public static String key(UUID id) {
+        return PRODUCT_CACHE_KEY_PREFIX + id;
+    }
+
+    private static String leaseKey(UUID id) {
+        return key(id) + LEASE_KEY_SUFFIX;
+    }
+
+    static String etagKey(UUID id) {
+        return key(id) + ETAG_KEY_SUFFIX;
+    }
+
+    private static String versionKey(UUID id) {
+        return key(id) + VERSION_KEY_SUFFIX;
+    }
+
+    private String responseKey(UUID id) {
+        return responseCodec.key(key(id));
+    }
+
+    public CachedProduct get(UUID id) {
+        return call("get", () -> redisTemplate.opsForValue().get(key(id)));
+    }
+
+    /**
+     * Returns the {@link ProductETag} stored next to the entry for {@code id}, or {@code null} when there is none.
+     * The tag expires together with the entry's soft TTL, so a stale entry is never confirmed through it.
+     */
+    public String getETag(UUID id) {
+        return call("getETag", () -> stringRedisTemplate.opsForValue().get(etagKey(id)));
+    }
+
+    /**
+     * Returns the pre-rendered response body stored next to the entry for {@code id}, or {@code null} when there
+     * is none. Like the ETag it expires with the entry's soft TTL.
+     */
+    public SerializedProductResponse getResponse(UUID id) {
+        byte[] bytes = call("getResponse",
+            () -> redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(utf8(responseKey(id)))));
+        return bytes == null ? null : responseCodec.decode(bytes);
+    }
+
+    /**
+     * Looks up all ids with a single MGET. The result is positional, with {@code null} for ids that are not
+     * cached.
+     */
+    public List<CachedProduct> getAll(List<UUID> ids) {
+        List<String> keys = ids.stream().map(RedisProductCache::key).toList();
+        return call("mget", () -> redisTemplate.opsForValue().multiGet(keys));
+    }
+
+    /**
+     * Backfills the entry for {@code id}. Returns {@code false} when Redis already knows a newer version of the
+     * product, in which case the loaded value is stale.
+     */
+    public boolean put(UUID id, Product product, long computeMillis) {
+        Duration ttl = jitteredTtl();
+        return write(id, null, entry(product, computeMillis, ttl), ttl);
+    }
+
+    public void putTombstone(UUID id) {
+        Duration ttl = properties.negativeTtl();
+        write(id, null, entry(null, 0, ttl), ttl);
+    }
+
+    /**
+     * Backfills many products and tombstones in one pipelined round trip, returning the ids of the products that
+     * were written. MSET can neither carry a TTL nor check versions, so this pipelines {@link #WRITE_ENTRY} calls.
+     */
+    public Set<UUID> putAll(Map<UUID, Product> products, Collection<UUID> missingIds, long computeMillis) {
+        List<UUID> ids = new ArrayList<>(products.keySet());
+        byte[] script = utf8(WRITE_ENTRY.getScriptAsString());
+        RedisCallback<Object> pipeline = connection -> {
+            // Loaded in the same pipeline, ahead of the EVALSHAs that need it
+            connection.scriptingCommands().scriptLoad(script);
+            for (UUID id : ids) {
+                Duration ttl = jitteredTtl();
+                evalWrite(connection, id, entry(products.get(id), computeMillis, ttl), ttl);
+            }
+            Duration negativeTtl = properties.negativeTtl();
+            for (UUID id : missingIds) {
+                evalWrite(connection, id, entry(null, 0, negativeTtl), negativeTtl);
+            }
+            return null;
+        };
+        List<Object> results = call("pipelinedSet",
+            () -> redisTemplate.executePipelined(pipeline, RedisSerializer.byteArray()));
+        // Counted from the end, in case the SCRIPT LOAD reply is left out
+        int offset = results.size() - ids.size() - missingIds.size();
+        Set<UUID> written = new HashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (Long.valueOf(1).equals(results.get(offset + i))) {
+                written.add(ids.get(i));
+            }
+        }
+        return written;
+    }
+
+    private void evalWrite(RedisConnection connection, UUID id, CachedProduct entry, Duration ttl) {
+        List<String> keys = writeKeys(id);
+        List<byte[]> args = writeArgs(null, entry, ttl);
+        byte[][] keysAndArgs = new byte[keys.size() + args.size()][];
+        for (int i = 0; i < keys.size(); i++) {
+            keysAndArgs[i] = utf8(keys.get(i));
+        }
+        for (int i = 0; i < args.size(); i++) {
+            keysAndArgs[keys.size() + i] = args.get(i);
+        }
+        connection.scriptingCommands().evalSha(WRITE_ENTRY.getSha1(), ReturnType.INTEGER, keys.size(), keysAndArgs);
+    }
+
+    /**
+     * Tries to become the one instance in the cluster that loads {@code id} from the database.
+     *
+     * @return the lease token, or {@code null} when another instance already holds the lease
+     */
+    public String tryAcquireLease(UUID id) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = call("acquireLease",
+            () -> stringRedisTemplate.opsForValue().setIfAbsent(leaseKey(id), token, leaseProperties.ttl()));
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    /**
+     * Backfills the entry only if {@code token} still owns the lease. Returns {@code false} when the lease
+     * expired or was removed by an invalidation, in which case the loaded value may be stale.
+     */
+    public boolean putIfLeaseHeld(UUID id, String token, Product product, long computeMillis) {
+        Duration ttl = jitteredTtl();
+        return write(id, token, entry(product, computeMillis, ttl), ttl);
+    }
+
+    public boolean putTombstoneIfLeaseHeld(UUID id, String token) {
+        Duration ttl = properties.negativeTtl();
+        return write(id, token, entry(null, 0, ttl), ttl);
+    }
+
+    private boolean write(UUID id, String leaseToken, CachedProduct entry, Duration ttl) {
+        Long result = call(leaseToken == null ? "set" : "setIfLeaseHeld", () -> redisTemplate.execute(
+            WRITE_ENTRY,
+            RedisSerializer.byteArray(),
+            new GenericToStringSerializer<>(Long.class),
+            writeKeys(id),
+            writeArgs(leaseToken, entry, ttl).toArray()));
+        return Long.valueOf(1).equals(result);
+    }
+
+    // Package-private so the reactive cache runs the very same script
+    List<String> writeKeys(UUID id) {
+        return responseCodec.isEnabled()
+            ? List.of(key(id), leaseKey(id), etagKey(id), versionKey(id), responseKey(id))
+            : List.of(key(id), leaseKey(id), etagKey(id), versionKey(id));
+    }
+
+    // Tombstones don't carry a row version, whatever deleted the row already invalidated the older versions
+    List<byte[]> writeArgs(String leaseToken, CachedProduct entry, Duration ttl) {
+        Product product = entry.product();
+        List<byte[]> args = new ArrayList<>(7);
+        args.add(utf8(leaseToken == null ? "" : leaseToken));
+        args.add(valueSerializer().serialize(entry));
+        args.add(utf8(Long.toString(ttl.toMillis())));
+        args.add(utf8(product == null ? "" : ProductETag.of(product)));
+        args.add(utf8(Long.toString(etagTtl(entry).toMillis())));
+        args.add(utf8(product == null ? "" : Long.toString(product.getVersion())));
+        if (responseCodec.isEnabled()) {
+            args.add(product == null ? new byte[0] : responseCodec.encode(responseCodec.render(product)));
+        }
+        return args;
+    }
+
+    public void releaseLease(UUID id, String token) {
+        call("releaseLease", () -> stringRedisTemplate.execute(RELEASE_LEASE, List.of(leaseKey(id)), token));
+    }
+
+    /**
+     * Drops the entry for {@code id} and everything stored next to it, unless Redis already knows {@code version}
+     * or a newer one. Dropping the lease together with the value makes any in-flight lease backfill for the old
+     * value a no-op, the recorded version does the same for the others.
+     *
+     * @return whether this call was the first to invalidate up to {@code version}
+     */
+    public boolean invalidate(UUID id, long version) {
+        Long result = call("invalidate", () -> stringRedisTemplate.execute(
+            INVALIDATE_OLDER,
+            List.of(versionKey(id), key(id), leaseKey(id), etagKey(id), responseKey(id)),
+            Long.toString(version),
+            // Outlives every entry written before it, so none of them can be backfilled again
+            Long.toString(properties.ttl().plus(properties.ttlJitter()).toMillis())));
+        return Long.valueOf(1).equals(result);
+    }
+
+    /**
+     * {@code false} while the circuit breaker is open. Every command would then fail with a
+     * {@link com.varunu28.thunderingherd.resilience.CallNotPermittedException} anyway, so optional writes such as
+     * backfills are better skipped.
+     */
+    public boolean isAvailable() {
+        return circuitBreaker.isCallPermitted();
+    }
+
+    public boolean isStale(CachedProduct entry) {
+        return properties.staleWhileRevalidate().enabled() && entry.isStale(System.currentTimeMillis());
+    }
+
+    public boolean shouldRecomputeEarly(CachedProduct entry) {
+        RedisCacheProperties.EarlyRecompute earlyRecompute = properties.earlyRecompute();
+        if (!earlyRecompute.enabled()) {
+            return false;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return entry.shouldRecomputeEarly(System.currentTimeMillis(), earlyRecompute.beta(), random);
+    }
+
+    // Package-private so the reactive cache writes the very same entries
+    Duration ttlFor(Product product) {
+        return product == null ? properties.negativeTtl() : jitteredTtl();
+    }
+
+    CachedProduct entry(Product product, long computeMillis, Duration ttl) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + ttl.toMillis();
+        RedisCacheProperties.StaleWhileRevalidate staleWhileRevalidate = properties.staleWhileRevalidate();
+        long softExpiresAt = staleWhileRevalidate.enabled()
+            ? Math.min(now + staleWhileRevalidate.softTtl().toMillis(), expiresAt)
+            : expiresAt;
+        return new CachedProduct(product, computeMillis, softExpiresAt, expiresAt);
+    }
+
+    // Every command goes through the circuit breaker, rejected ones are not timed
+    private <T> T call(String operation, Supplier<T> command) {
+        return circuitBreaker.execute(() -> cacheMetrics.recordRedisOperation(operation, command));
+    }
+
+    // Once the entry turns stale its ETag is gone, so conditional requests take the path that refreshes it
+    Duration etagTtl(CachedProduct entry) {
+        return Duration.ofMillis(Math.max(1, entry.softExpiresAt() - System.currentTimeMillis()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<CachedProduct> valueSerializer() {
+        return (RedisSerializer<CachedProduct>) redisTemplate.getValueSerializer();
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Spread expiries so keys written together don't all expire at the same instant
+    private Duration jitteredTtl() {
+        long jitterMillis = properties.ttlJitter().toMillis();
+        if (jitterMillis <= 0) {
+            return properties.ttl();
+        }
+        return properties.ttl().plusMillis(ThreadLocalRandom.current().nextLong(jitterMillis + 1));
+    }
+}
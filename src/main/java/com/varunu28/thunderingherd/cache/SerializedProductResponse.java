@@ -0,0 +1,8 @@
+package com.varunu28.thunderingherd.cache;
+
+/**
+ * A product response body rendered to JSON once, together with the validators that go out with it.
+ * {@code lastModified} is -1 when the product has no launch date.
+ */
+public record SerializedProductResponse(String etag, long lastModified, byte[] body) {
+}
@@ -0,0 +1,12 @@
+package com.varunu28.thunderingherd.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "product.loader.batch")
+public record BatchLoaderProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("2ms") Duration window,
+    @DefaultValue("100") int maxSize) {
+}
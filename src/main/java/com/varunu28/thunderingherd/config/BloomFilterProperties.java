@@ -0,0 +1,12 @@
+package com.varunu28.thunderingherd.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "product.cache.bloom-filter")
+public record BloomFilterProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("1000000") long expectedInsertions,
+    @DefaultValue("0.01") double falsePositiveProbability,
+    @DefaultValue("product-created") String creationChannel) {
+}
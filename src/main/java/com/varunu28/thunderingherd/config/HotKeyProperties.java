@@ -0,0 +1,17 @@
+package com.varunu28.thunderingherd.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "product.cache.hot-keys")
+public record HotKeyProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("4096") int sketchWidth,
+    @DefaultValue("4") int sketchDepth,
+    @DefaultValue("32") int topK,
+    @DefaultValue("10s") Duration decayInterval,
+    @DefaultValue("1000") long promotionThreshold,
+    @DefaultValue("1s") Duration refreshInterval,
+    @DefaultValue("30s") Duration refreshAhead) {
+}
@@ -0,0 +1,21 @@
+package com.varunu28.thunderingherd.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "product.http.caching")
+public record HttpCachingProperties(
+    @DefaultValue("true") boolean etags,
+    @DefaultValue("true") boolean lastModified,
+    @DefaultValue CacheControl cacheControl) {
+
+    // Directives for the Cache-Control header of product responses, other than max-age a zero leaves one out
+    public record CacheControl(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("0s") Duration maxAge,
+        @DefaultValue("10s") Duration sMaxAge,
+        @DefaultValue("0s") Duration staleWhileRevalidate,
+        @DefaultValue("0s") Duration staleIfError) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.varunu28.thunderingherd.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "product.ingest")
+public record IngestProperties(
+    @DefaultValue("1000") int chunkSize,
+    @DefaultValue("false") boolean writeThrough) {
+}
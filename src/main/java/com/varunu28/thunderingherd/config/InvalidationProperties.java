@@ -0,0 +1,14 @@
+package com.varunu28.thunderingherd.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "product.cache.invalidation")
+public record InvalidationProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("product_changes") String channel,
+    @DefaultValue("false") boolean refreshOnUpdate,
+    @DefaultValue("500ms") Duration pollInterval,
+    @DefaultValue("1s") Duration reconnectBackoff) {
+}
@@ -0,0 +1,14 @@
+package com.varunu28.thunderingherd.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "product.cache.lease")
+public record LeaseProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("5s") Duration ttl,
+    @DefaultValue("10ms") Duration initialBackoff,
+    @DefaultValue("200ms") Duration maxBackoff,
+    @DefaultValue("3s") Duration maxWait) {
+}
@@ -0,0 +1,21 @@
+package com.varunu28.thunderingherd.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "product.listing")
+public record ListingProperties(
+    @DefaultValue("20") int defaultPageSize,
+    @DefaultValue("100") int maxPageSize,
+    // Signs the page cursors, must be the same on every instance. A random one is generated when it is unset
+    String cursorSecret,
+    @DefaultValue PageCache cache) {
+
+    // Only the first cachedPages pages of every page size are cached, deeper pages are rarely read twice
+    public record PageCache(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("5") int cachedPages,
+        @DefaultValue("1m") Duration ttl) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.varunu28.thunderingherd.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "product.loader.limit")
+public record LoadLimitProperties(
+    @DefaultValue("2s") Duration waitTimeout,
+    @DefaultValue("1s") Duration retryAfter,
+    @DefaultValue("10000") int maxInFlight,
+    @DefaultValue AdaptiveLimit adaptive) {
+
+    // AIMD: grow by one while queries stay under latencyThreshold, shrink by backoffRatio when they don't
+    public record AdaptiveLimit(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("20") int initialLimit,
+        @DefaultValue("1") int minLimit,
+        @DefaultValue("200") int maxLimit,
+        @DefaultValue("250ms") Duration latencyThreshold,
+        @DefaultValue("0.9") double backoffRatio) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.varunu28.thunderingherd.config;
+
+import com.varunu28.thunderingherd.metrics.InstrumentedExecutorService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LoaderExecutorConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService productLoaderExecutor(LoaderExecutorProperties properties, MeterRegistry meterRegistry) {
+        ExecutorService executor = switch (properties.type()) {
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("product-loader-", 0).factory());
+            case PLATFORM -> new ThreadPoolExecutor(
+                properties.maxThreads(),
+                properties.maxThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()),
+                Thread.ofPlatform().name("product-loader-", 0).daemon().factory());
+        };
+        return new InstrumentedExecutorService(executor, "product.loader.executor", meterRegistry);
+    }
+}
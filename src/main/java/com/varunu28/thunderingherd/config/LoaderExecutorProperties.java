@@ -0,0 +1,16 @@
+package com.varunu28.thunderingherd.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "product.loader.executor")
+public record LoaderExecutorProperties(
+    @DefaultValue("platform") Type type,
+    @DefaultValue("32") int maxThreads,
+    @DefaultValue("1000") int queueCapacity) {
+
+    public enum Type {
+        PLATFORM,
+        VIRTUAL
+    }
+}
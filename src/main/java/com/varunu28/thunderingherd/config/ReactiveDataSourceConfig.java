@@ -0,0 +1,37 @@
+package com.varunu28.thunderingherd.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * The JDBC data source auto-configuration backs off as soon as an R2DBC connection factory exists, but the
+ * reactive profile still needs JDBC off the request path: bulk ingest, the Bloom filter load and cache warm-up.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(
+        DataSourceProperties properties,
+        ObjectProvider<JdbcConnectionDetails> connectionDetails) {
+        DataSourceBuilder<HikariDataSource> builder = properties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class);
+        // Docker Compose and Testcontainers publish their connection as JdbcConnectionDetails
+        connectionDetails.ifAvailable(details -> builder
+            .url(details.getJdbcUrl())
+            .username(details.getUsername())
+            .password(details.getPassword()));
+        return builder.build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.varunu28.thunderingherd.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "product.cache.redis")
+public record RedisCacheProperties(
+    @DefaultValue("10m") Duration ttl,
+    @DefaultValue("1m") Duration ttlJitter,
+    @DefaultValue("30s") Duration negativeTtl,
+    @DefaultValue EarlyRecompute earlyRecompute,
+    @DefaultValue StaleWhileRevalidate staleWhileRevalidate,
+    @DefaultValue Codec codec) {
+
+    public record EarlyRecompute(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1.0") double beta) {
+    }
+
+    // Entries older than softTtl are still served but trigger a background refresh, ttl stays the hard limit
+    public record StaleWhileRevalidate(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("5m") Duration softTtl) {
+    }
+
+    // Readers accept both formats whatever is configured for writing, so the format can be switched in a rollout
+    public record Codec(
+        @DefaultValue("json") Format format,
+        @DefaultValue("512") int compressionThreshold) {
+
+        public enum Format {
+            JSON,
+            BINARY
+        }
+    }
+}
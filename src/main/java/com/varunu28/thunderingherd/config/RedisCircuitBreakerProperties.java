@@ -0,0 +1,23 @@
+package com.varunu28.thunderingherd.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "product.cache.circuit-breaker")
+public record RedisCircuitBreakerProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("100ms") Duration callTimeout,
+    @DefaultValue("0.5") double failureRateThreshold,
+    @DefaultValue("50") int slidingWindowSize,
+    @DefaultValue("20") int minimumCalls,
+    @DefaultValue("5s") Duration openDuration,
+    @DefaultValue("3") int halfOpenProbes,
+    @DefaultValue Fallback fallback) {
+
+    // Products loaded while Redis is unavailable are kept here instead, bounded like the near cache
+    public record Fallback(
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("30s") Duration ttl) {
+    }
+}
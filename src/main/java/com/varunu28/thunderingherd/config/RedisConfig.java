@@ -1,22 +1,79 @@
 package com.varunu28.thunderingherd.config;
 
-import com.varunu28.thunderingherd.model.Product;
+import com.varunu28.thunderingherd.cache.CachedProduct;
+import com.varunu28.thunderingherd.cache.CachedProductRedisSerializer;
+import com.varunu28.thunderingherd.cache.ProductIdBloomFilter;
+import com.varunu28.thunderingherd.cache.ProductNearCache;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.TimeoutOptions;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
 public class RedisConfig {
 
     @Bean
-    public RedisTemplate<String, Product> redisTemplate(RedisConnectionFactory connectionFactory) {
-        RedisTemplate<String, Product> template = new RedisTemplate<>();
+    public RedisTemplate<String, CachedProduct> redisTemplate(
+        RedisConnectionFactory connectionFactory,
+        RedisCacheProperties redisCacheProperties) {
+        RedisTemplate<String, CachedProduct> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(new CachedProductRedisSerializer(redisCacheProperties.codec()));
         return template;
     }
+
+    @Bean
+    @Profile("reactive")
+    public ReactiveRedisTemplate<String, CachedProduct> reactiveRedisTemplate(
+        ReactiveRedisConnectionFactory connectionFactory,
+        RedisCacheProperties redisCacheProperties) {
+        RedisSerializationContext<String, CachedProduct> serializationContext = RedisSerializationContext
+            .<String, CachedProduct>newSerializationContext(new StringRedisSerializer())
+            .value(new CachedProductRedisSerializer(redisCacheProperties.codec()))
+            .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, serializationContext);
+    }
+
+    // A tight per-command timeout lets the circuit breaker notice a hanging Redis instead of every request waiting.
+    // It goes through TimeoutOptions rather than commandTimeout, which would also cut short the connection handshake.
+    @Bean
+    public LettuceClientConfigurationBuilderCustomizer redisCommandTimeoutCustomizer(
+        RedisCircuitBreakerProperties circuitBreakerProperties) {
+        return builder -> {
+            if (!circuitBreakerProperties.enabled()) {
+                return;
+            }
+            ClientOptions.Builder clientOptions = builder.build().getClientOptions()
+                .map(ClientOptions::mutate)
+                .orElseGet(ClientOptions::builder);
+            builder.clientOptions(clientOptions
+                .timeoutOptions(TimeoutOptions.enabled(circuitBreakerProperties.callTimeout()))
+                .build());
+        };
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(
+        RedisConnectionFactory connectionFactory,
+        ProductNearCache productNearCache,
+        NearCacheProperties nearCacheProperties,
+        ProductIdBloomFilter productIdBloomFilter,
+        BloomFilterProperties bloomFilterProperties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(productNearCache, new ChannelTopic(nearCacheProperties.invalidationChannel()));
+        container.addMessageListener(productIdBloomFilter, new ChannelTopic(bloomFilterProperties.creationChannel()));
+        return container;
+    }
 }
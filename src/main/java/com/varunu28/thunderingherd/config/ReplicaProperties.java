@@ -0,0 +1,26 @@
+package com.varunu28.thunderingherd.config;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "product.datasource.replicas")
+public record ReplicaProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue List<Node> nodes,
+    @DefaultValue("round-robin") Selection selection,
+    @DefaultValue("5s") Duration maxLag,
+    @DefaultValue("100000") long recentWritesMaximumSize,
+    @DefaultValue("2s") Duration healthCheckInterval,
+    @DefaultValue("1s") Duration connectionTimeout) {
+
+    public enum Selection {
+        ROUND_ROBIN,
+        LEAST_LATENCY
+    }
+
+    // Credentials default to the ones of the primary
+    public record Node(String url, String username, String password, @DefaultValue("10") int maximumPoolSize) {
+    }
+}
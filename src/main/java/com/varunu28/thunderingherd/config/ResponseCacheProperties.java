@@ -0,0 +1,11 @@
+package com.varunu28.thunderingherd.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// Bump version whenever the JSON mapper configuration changes the bytes a product renders to
+@ConfigurationProperties(prefix = "product.cache.response")
+public record ResponseCacheProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("1") String version) {
+}
@@ -0,0 +1,14 @@
+package com.varunu28.thunderingherd.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// Only cache hit traces are thinned out, misses, errors and anything slower than slowThreshold are always exported
+@ConfigurationProperties(prefix = "product.tracing.sampling")
+public record TraceSamplingProperties(
+    @DefaultValue("false") boolean adaptive,
+    @DefaultValue("0.01") double cacheHitRate,
+    @DefaultValue("100ms") Duration slowThreshold,
+    @DefaultValue("10000") int maxTrackedTraces) {
+}
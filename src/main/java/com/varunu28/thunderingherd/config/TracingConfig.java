@@ -0,0 +1,20 @@
+package com.varunu28.thunderingherd.config;
+
+import com.varunu28.thunderingherd.tracing.AdaptiveSamplingSpanHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+@Configuration
+public class TracingConfig {
+
+    // Needs every span to be recorded, so keep management.tracing.sampling.probability at 1.0 with this enabled
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @ConditionalOnProperty(prefix = "product.tracing.sampling", name = "adaptive", havingValue = "true")
+    public AdaptiveSamplingSpanHandler adaptiveSamplingSpanHandler(TraceSamplingProperties properties) {
+        return new AdaptiveSamplingSpanHandler(properties);
+    }
+}
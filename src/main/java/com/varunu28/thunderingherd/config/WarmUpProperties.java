@@ -0,0 +1,17 @@
+package com.varunu28.thunderingherd.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "product.cache.warm-up")
+public record WarmUpProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("hot-keys.snapshot") Path snapshotFile,
+    @DefaultValue("1m") Duration snapshotInterval,
+    @DefaultValue("1000") int fallbackSize,
+    @DefaultValue("100") int batchSize,
+    @DefaultValue("10") int maxBatchesPerSecond,
+    @DefaultValue("30s") Duration timeout) {
+}
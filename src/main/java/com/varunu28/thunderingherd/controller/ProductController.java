@@ -1,31 +1,57 @@
 package com.varunu28.thunderingherd.controller;
 
+import com.varunu28.thunderingherd.dto.BatchGetProductsDto;
+import com.varunu28.thunderingherd.dto.BulkCreateProductsResultDto;
 import com.varunu28.thunderingherd.dto.CreateProductDto;
 import com.varunu28.thunderingherd.dto.GetProductDto;
+import com.varunu28.thunderingherd.dto.UpdateProductDto;
 import com.varunu28.thunderingherd.exception.ProductNotFoundException;
-import com.varunu28.thunderingherd.model.Product;
+import com.varunu28.thunderingherd.service.ProductIngestService;
+import com.varunu28.thunderingherd.service.ProductListingService;
 import com.varunu28.thunderingherd.service.ProductService;
 import io.micrometer.tracing.annotation.NewSpan;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/v1/products")
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductIngestService productIngestService;
+    private final ProductListingService productListingService;
+    private final ProductResponses productResponses;
 
-    public ProductController(ProductService productService) {
+    public ProductController(
+        ProductService productService,
+        ProductIngestService productIngestService,
+        ProductListingService productListingService,
+        ProductResponses productResponses) {
         this.productService = productService;
+        this.productIngestService = productIngestService;
+        this.productListingService = productListingService;
+        this.productResponses = productResponses;
     }
 
     @NewSpan("create-product")
@@ -39,10 +65,64 @@ public class ProductController {
         return ResponseEntity.ok(productId);
     }
 
+    // Takes a JSON array of products and streams it into the database, see ProductIngestService
+    @NewSpan("bulk-create-products")
+    @PostMapping(value = "/bulk", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkCreateProductsResultDto> createProducts(InputStream body) throws IOException {
+        return ResponseEntity.ok(productIngestService.ingest(body));
+    }
+
+    // Newest first, follow next_cursor for the following page, see ProductListingService
+    @NewSpan("list-products")
+    @GetMapping(produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> listProducts(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(productListingService.listProducts(cursor, limit));
+    }
+
     @NewSpan("get-product")
     @GetMapping(value = "/{id}", produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<GetProductDto> getProduct(@PathVariable UUID id) throws ProductNotFoundException {
-        Product productById = productService.getProductById(id);
-        return ResponseEntity.ok(GetProductDto.from(productById));
+    public ResponseEntity<?> getProduct(
+        @PathVariable UUID id,
+        @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch) throws ProductNotFoundException {
+        if (productResponses.isConditional(ifNoneMatch)) {
+            return productResponses.of(
+                productService.getProductUnlessMatched(id, etag -> ProductResponses.matches(ifNoneMatch, etag)));
+        }
+        if (productResponses.servesSerializedResponses()) {
+            return productResponses.ok(productService.getProductResponse(id));
+        }
+        return productResponses.ok(productService.getProductById(id));
+    }
+
+    @NewSpan("update-product")
+    @PutMapping(value = "/{id}", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<GetProductDto> updateProduct(
+        @PathVariable UUID id,
+        @RequestBody @Valid UpdateProductDto updateProductDto) throws ProductNotFoundException {
+        return productResponses.ok(productService.updateProduct(
+            id,
+            updateProductDto.name(),
+            updateProductDto.description(),
+            updateProductDto.price()));
+    }
+
+    @NewSpan("delete-product")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteProduct(@PathVariable UUID id) throws ProductNotFoundException {
+        productService.deleteProduct(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @NewSpan("batch-get-products")
+    @PostMapping(value = "/batch", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<UUID, GetProductDto>> getProducts(@RequestBody @Valid BatchGetProductsDto batchGetProductsDto) {
+        Map<UUID, GetProductDto> products = new LinkedHashMap<>();
+        productService.getProductsByIds(batchGetProductsDto.ids())
+            .forEach((id, product) -> products.put(id, GetProductDto.from(product)));
+        return ResponseEntity.ok(products);
     }
 }
@@ -0,0 +1,123 @@
+package com.varunu28.thunderingherd.controller;
+
+import com.varunu28.thunderingherd.cache.ProductETag;
+import com.varunu28.thunderingherd.cache.SerializedProductResponse;
+import com.varunu28.thunderingherd.config.HttpCachingProperties;
+import com.varunu28.thunderingherd.config.ResponseCacheProperties;
+import com.varunu28.thunderingherd.dto.GetProductDto;
+import com.varunu28.thunderingherd.model.Product;
+import com.varunu28.thunderingherd.service.ConditionalProduct;
+import java.time.Duration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds single product responses with the validators and caching headers both controllers send, so that
+ * browsers and edge caches can revalidate with {@code If-None-Match} instead of fetching the body again.
+ */
+@Component
+public class ProductResponses {
+
+    private final HttpCachingProperties properties;
+    private final boolean serializedResponses;
+    private final CacheControl cacheControl;
+
+    public ProductResponses(HttpCachingProperties properties, ResponseCacheProperties responseCacheProperties) {
+        this.properties = properties;
+        this.serializedResponses = responseCacheProperties.enabled();
+        this.cacheControl = cacheControl(properties.cacheControl());
+    }
+
+    // Without ETags there is nothing to compare If-None-Match against, so every request gets the full body
+    public boolean isConditional(String ifNoneMatch) {
+        return properties.etags() && ifNoneMatch != null;
+    }
+
+    // Whether to serve pre-rendered bodies, see ProductService.getProductResponse
+    public boolean servesSerializedResponses() {
+        return serializedResponses;
+    }
+
+    // The body is already JSON, it is written to the client byte for byte
+    public ResponseEntity<byte[]> ok(SerializedProductResponse response) {
+        ResponseEntity.BodyBuilder builder = headers(ResponseEntity.ok(), properties.etags() ? response.etag() : null);
+        if (properties.lastModified() && response.lastModified() >= 0) {
+            builder.lastModified(response.lastModified());
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(response.body());
+    }
+
+    public ResponseEntity<GetProductDto> ok(Product product) {
+        return ok(product, properties.etags() ? ProductETag.of(product) : null);
+    }
+
+    public ResponseEntity<GetProductDto> of(ConditionalProduct result) {
+        if (result.isNotModified()) {
+            // A 304 has to repeat the caching headers of the 200 it stands for
+            return headers(ResponseEntity.status(HttpStatus.NOT_MODIFIED), result.etag()).build();
+        }
+        return ok(result.product(), result.etag());
+    }
+
+    private ResponseEntity<GetProductDto> ok(Product product, String etag) {
+        ResponseEntity.BodyBuilder response = headers(ResponseEntity.ok(), etag);
+        if (properties.lastModified() && product.getUpdatedAt() != null) {
+            response.lastModified(product.getUpdatedAt().getTime());
+        }
+        return response.body(GetProductDto.from(product));
+    }
+
+    private ResponseEntity.BodyBuilder headers(ResponseEntity.BodyBuilder response, String etag) {
+        if (etag != null) {
+            response.eTag(etag);
+        }
+        if (cacheControl != null) {
+            response.cacheControl(cacheControl);
+        }
+        return response;
+    }
+
+    /**
+     * Weak comparison as RFC 9110 prescribes for {@code If-None-Match}: {@code W/} prefixes are ignored and
+     * {@code *} matches any current representation.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.strip();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static CacheControl cacheControl(HttpCachingProperties.CacheControl directives) {
+        if (!directives.enabled()) {
+            return null;
+        }
+        CacheControl cacheControl = CacheControl.maxAge(directives.maxAge()).cachePublic();
+        if (isPositive(directives.sMaxAge())) {
+            cacheControl = cacheControl.sMaxAge(directives.sMaxAge());
+        }
+        if (isPositive(directives.staleWhileRevalidate())) {
+            cacheControl = cacheControl.staleWhileRevalidate(directives.staleWhileRevalidate());
+        }
+        if (isPositive(directives.staleIfError())) {
+            cacheControl = cacheControl.staleIfError(directives.staleIfError());
+        }
+        return cacheControl;
+    }
+
+    private static boolean isPositive(Duration duration) {
+        return !duration.isZero() && !duration.isNegative();
+    }
+}
@@ -0,0 +1,69 @@
+package com.varunu28.thunderingherd.controller;
+
+import com.varunu28.thunderingherd.dto.BatchGetProductsDto;
+import com.varunu28.thunderingherd.dto.CreateProductDto;
+import com.varunu28.thunderingherd.dto.GetProductDto;
+import com.varunu28.thunderingherd.service.ReactiveProductService;
+import jakarta.validation.Valid;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+// The same API as ProductController, served by WebFlux when the reactive profile is active
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/v1/products")
+public class ReactiveProductController {
+
+    private final ReactiveProductService productService;
+    private final ProductResponses productResponses;
+
+    public ReactiveProductController(ReactiveProductService productService, ProductResponses productResponses) {
+        this.productService = productService;
+        this.productResponses = productResponses;
+    }
+
+    @PostMapping(consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<UUID>> createProduct(@RequestBody @Valid CreateProductDto createProductDto) {
+        return productService.createProduct(
+                createProductDto.name(),
+                createProductDto.description(),
+                createProductDto.price())
+            .map(ResponseEntity::ok);
+    }
+
+    @GetMapping(value = "/{id}", produces = APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<GetProductDto>> getProduct(
+        @PathVariable UUID id,
+        @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (!productResponses.isConditional(ifNoneMatch)) {
+            return productService.getProductById(id).map(productResponses::ok);
+        }
+        return productService.getProductUnlessMatched(id, etag -> ProductResponses.matches(ifNoneMatch, etag))
+            .map(productResponses::of);
+    }
+
+    @PostMapping(value = "/batch", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<UUID, GetProductDto>>> getProducts(
+        @RequestBody @Valid BatchGetProductsDto batchGetProductsDto) {
+        return productService.getProductsByIds(batchGetProductsDto.ids())
+            .map(found -> {
+                Map<UUID, GetProductDto> products = new LinkedHashMap<>();
+                found.forEach((id, product) -> products.put(id, GetProductDto.from(product)));
+                return ResponseEntity.ok(products);
+            });
+    }
+}
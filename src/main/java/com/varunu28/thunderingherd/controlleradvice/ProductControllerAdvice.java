@@ -1,13 +1,21 @@
 package com.varunu28.thunderingherd.controlleradvice;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.varunu28.thunderingherd.exception.InvalidPageRequestException;
 import com.varunu28.thunderingherd.exception.ProductNotFoundException;
+import com.varunu28.thunderingherd.exception.ServiceOverloadedException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
 @ControllerAdvice
 public class ProductControllerAdvice {
@@ -17,11 +25,46 @@ public class ProductControllerAdvice {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<String> handleServiceOverloadedException(ServiceOverloadedException ex) {
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+            .body(ex.getMessage());
+    }
+
+    // Another request changed or deleted the product between our read and our write
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Product was modified concurrently, retry the request");
+    }
+
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public ResponseEntity<String> handleInvalidPageRequestException(InvalidPageRequestException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    // Bodies parsed by hand, like bulk imports, don't go through HttpMessageNotReadableException
+    @ExceptionHandler(JsonProcessingException.class)
+    public ResponseEntity<String> handleJsonProcessingException(JsonProcessingException ex) {
+        return ResponseEntity.badRequest().body(ex.getOriginalMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        return validationFailed(ex.getBindingResult().getFieldErrors());
+    }
+
+    // WebFlux flavour of MethodArgumentNotValidException, raised under the reactive profile
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, Object>> handleWebExchangeBindException(WebExchangeBindException ex) {
+        return validationFailed(ex.getFieldErrors());
+    }
+
+    private static ResponseEntity<Map<String, Object>> validationFailed(List<FieldError> errorsByField) {
         Map<String, Object> errors = new HashMap<>();
         Map<String, String> fieldErrors = new HashMap<>();
-        ex.getBindingResult().getFieldErrors().forEach(error ->
+        errorsByField.forEach(error ->
             fieldErrors.put(error.getField(), error.getDefaultMessage())
         );
         errors.put("message", "Validation failed");
@@ -0,0 +1,12 @@
+package com.varunu28.thunderingherd.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import java.util.UUID;
+
+public record BatchGetProductsDto(
+    @NotEmpty @Size(max = 100) @JsonProperty("ids") List<@NotNull UUID> ids) {
+}
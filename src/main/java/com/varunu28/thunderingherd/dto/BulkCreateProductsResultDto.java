@@ -0,0 +1,8 @@
+package com.varunu28.thunderingherd.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record BulkCreateProductsResultDto(
+    @JsonProperty("created") long created,
+    @JsonProperty("rejected") long rejected) {
+}
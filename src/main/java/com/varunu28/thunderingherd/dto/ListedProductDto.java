@@ -0,0 +1,23 @@
+package com.varunu28.thunderingherd.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.varunu28.thunderingherd.model.Product;
+import java.util.Date;
+import java.util.UUID;
+
+public record ListedProductDto(
+    @JsonProperty("id") UUID id,
+    @JsonProperty("name") String name,
+    @JsonProperty("description") String description,
+    @JsonProperty("price") Double price,
+    @JsonProperty("launched_at") Date launchedAt) {
+
+    public static ListedProductDto from(Product product) {
+        return new ListedProductDto(
+            product.getId(),
+            product.getName(),
+            product.getDescription(),
+            product.getPrice().doubleValue(),
+            product.getLaunchedAt());
+    }
+}
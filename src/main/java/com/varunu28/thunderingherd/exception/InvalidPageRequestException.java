@@ -0,0 +1,7 @@
+package com.varunu28.thunderingherd.exception;
+
+public class InvalidPageRequestException extends RuntimeException {
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,84 @@
+package com.varunu28.thunderingherd.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts tasks that are waiting for a thread and tasks that are running, independently of the kind of
+ * executor underneath. Micrometer's own executor metrics only understand {@code ThreadPoolExecutor}, which
+ * leaves a virtual-thread-per-task executor without any visibility.
+ */
+public class InstrumentedExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    public InstrumentedExecutorService(ExecutorService delegate, String name, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        Gauge.builder(name + ".queued", queued, AtomicInteger::get)
+            .description("Tasks submitted but not started yet")
+            .register(meterRegistry);
+        Gauge.builder(name + ".active", active, AtomicInteger::get)
+            .description("Tasks currently running")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queued.decrementAndGet();
+                active.incrementAndGet();
+                try {
+                    command.run();
+                } finally {
+                    active.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+    }
+
+    public int queuedTasks() {
+        return queued.get();
+    }
+
+    public int activeTasks() {
+        return active.get();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
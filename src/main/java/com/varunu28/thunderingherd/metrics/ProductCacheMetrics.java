@@ -0,0 +1,70 @@
+package com.varunu28.thunderingherd.metrics;
+
+import com.varunu28.thunderingherd.cache.CacheTier;
+import com.varunu28.thunderingherd.cache.ProductNearCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductCacheMetrics {
+
+    private static final String CACHE_GETS = "product.cache.gets";
+
+    private final Map<CacheTier, Counter> hits = new EnumMap<>(CacheTier.class);
+    private final Map<CacheTier, Counter> misses = new EnumMap<>(CacheTier.class);
+    private final Counter bloomFilterRejections;
+    private final Map<String, Timer> redisOperations = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public ProductCacheMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (CacheTier tier : CacheTier.values()) {
+            hits.put(tier, Counter.builder(CACHE_GETS)
+                .description("Product cache lookups per tier")
+                .tag("tier", tier.tagValue())
+                .tag("result", "hit")
+                .register(meterRegistry));
+            misses.put(tier, Counter.builder(CACHE_GETS)
+                .description("Product cache lookups per tier")
+                .tag("tier", tier.tagValue())
+                .tag("result", "miss")
+                .register(meterRegistry));
+        }
+        bloomFilterRejections = Counter.builder("product.cache.bloom.rejections")
+            .description("Lookups for unknown product ids rejected without any I/O")
+            .register(meterRegistry);
+    }
+
+    public void recordHit(CacheTier tier) {
+        hits.get(tier).increment();
+    }
+
+    public void recordMiss(CacheTier tier) {
+        misses.get(tier).increment();
+    }
+
+    public void recordBloomFilterRejection() {
+        bloomFilterRejections.increment();
+    }
+
+    public <T> T recordRedisOperation(String operation, Supplier<T> call) {
+        return redisOperations.computeIfAbsent(operation, name -> Timer.builder("product.cache.redis.operations")
+                .description("Latency of Redis commands issued by the product cache")
+                .tag("operation", name)
+                .register(meterRegistry))
+            .record(call);
+    }
+
+    public void monitorPinnedKeys(ProductNearCache nearCache) {
+        Gauge.builder("product.cache.hot.keys.pinned", nearCache, ProductNearCache::pinnedCount)
+            .description("Hot product ids pinned in the local cache")
+            .register(meterRegistry);
+    }
+}
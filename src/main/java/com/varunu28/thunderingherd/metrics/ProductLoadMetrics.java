@@ -0,0 +1,115 @@
+package com.varunu28.thunderingherd.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Component
+public class ProductLoadMetrics {
+
+    private static final String LOADS = "product.loads";
+    private static final String DB_LOOKUPS = "product.db.lookups";
+
+    private final MeterRegistry meterRegistry;
+    private final Counter loadsStarted;
+    private final Counter loadsCoalesced;
+    private final Counter loadsCancelled;
+    private final Counter loadsRejected;
+    private final Timer findByIdLookups;
+    private final Timer findAllByIdLookups;
+    private final Counter backfillFailures;
+    private final Counter waitTimeouts;
+
+    public ProductLoadMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.loadsStarted = Counter.builder(LOADS)
+            .description("Cache miss loads, either started by this request or joined onto one already in flight")
+            .tag("result", "started")
+            .register(meterRegistry);
+        this.loadsCoalesced = Counter.builder(LOADS)
+            .description("Cache miss loads, either started by this request or joined onto one already in flight")
+            .tag("result", "coalesced")
+            .register(meterRegistry);
+        this.loadsCancelled = Counter.builder(LOADS)
+            .description("Cache miss loads cancelled because every waiter gave up")
+            .tag("result", "cancelled")
+            .register(meterRegistry);
+        this.loadsRejected = Counter.builder(LOADS)
+            .description("Cache miss loads rejected because too many loads were already in flight")
+            .tag("result", "rejected")
+            .register(meterRegistry);
+        this.findByIdLookups = Timer.builder(DB_LOOKUPS)
+            .description("Latency of product queries against Postgres")
+            .tag("operation", "findById")
+            .register(meterRegistry);
+        this.findAllByIdLookups = Timer.builder(DB_LOOKUPS)
+            .description("Latency of product queries against Postgres")
+            .tag("operation", "findAllById")
+            .register(meterRegistry);
+        this.backfillFailures = Counter.builder("product.cache.backfill.failures")
+            .description("Loaded products that could not be written back to Redis")
+            .register(meterRegistry);
+        this.waitTimeouts = Counter.builder("product.loads.wait.timeouts")
+            .description("Requests that gave up waiting for a cache miss load")
+            .register(meterRegistry);
+    }
+
+    // The gauge only keeps a weak reference, the owner of the map keeps it alive
+    public void monitorInFlightLoads(Map<?, ?> ongoingRequests) {
+        Gauge.builder("product.loads.in.flight", ongoingRequests, Map::size)
+            .description("Cache miss loads currently running on this instance")
+            .register(meterRegistry);
+    }
+
+    public void recordLoadStarted() {
+        loadsStarted.increment();
+    }
+
+    public void recordLoadCoalesced() {
+        loadsCoalesced.increment();
+    }
+
+    public void recordLoadCancelled() {
+        loadsCancelled.increment();
+    }
+
+    public void recordLoadRejected() {
+        loadsRejected.increment();
+    }
+
+    public <T> T recordFindById(Supplier<T> lookup) {
+        return findByIdLookups.record(lookup);
+    }
+
+    public <T> T recordFindAllById(Supplier<T> lookup) {
+        return findAllByIdLookups.record(lookup);
+    }
+
+    public <T> Mono<T> recordFindById(Mono<T> lookup) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return lookup.doFinally(signal -> sample.stop(findByIdLookups));
+        });
+    }
+
+    public <T> Flux<T> recordFindAllById(Flux<T> lookup) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return lookup.doFinally(signal -> sample.stop(findAllByIdLookups));
+        });
+    }
+
+    public void recordBackfillFailure() {
+        backfillFailures.increment();
+    }
+
+    public void recordWaitTimeout() {
+        waitTimeouts.increment();
+    }
+}
@@ -6,6 +6,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 import java.util.Date;
 import java.util.UUID;
@@ -30,6 +31,15 @@ public class Product {
     @Column(name = "launched_at")
     private Date launchedAt;
 
+    // Set by every update, also by a trigger for writes that bypass JPA. Source of Last-Modified
+    @Column(name = "updated_at")
+    private Date updatedAt;
+
+    // Bumped by every update, also by a trigger for writes that bypass JPA, see scripts/init.sql
+    @Version
+    @Column(name = "version")
+    private long version;
+
     public Product() {
 
     }
@@ -39,6 +49,7 @@ public class Product {
         this.description = description;
         this.price = price;
         this.launchedAt = new Date();
+        this.updatedAt = launchedAt;
     }
 
     public Product(UUID id, String name, String description, BigDecimal price) {
@@ -46,6 +57,38 @@ public class Product {
         this.id = id;
     }
 
+    public Product(UUID id, String name, String description, BigDecimal price, Date launchedAt) {
+        this(id, name, description, price, launchedAt, 0);
+    }
+
+    public Product(UUID id, String name, String description, BigDecimal price, Date launchedAt, long version) {
+        this(id, name, description, price, launchedAt, launchedAt, version);
+    }
+
+    public Product(
+        UUID id,
+        String name,
+        String description,
+        BigDecimal price,
+        Date launchedAt,
+        Date updatedAt,
+        long version) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.launchedAt = launchedAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+    }
+
+    public void update(String name, String description, BigDecimal price) {
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.updatedAt = new Date();
+    }
+
     public UUID getId() {
         return id;
     }
@@ -65,4 +108,12 @@ public class Product {
     public Date getLaunchedAt() {
         return launchedAt;
     }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
 }
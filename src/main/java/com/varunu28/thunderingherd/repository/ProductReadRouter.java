@@ -0,0 +1,87 @@
+package com.varunu28.thunderingherd.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.varunu28.thunderingherd.config.ReplicaProperties;
+import com.varunu28.thunderingherd.model.Product;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Component;
+
+/**
+ * The reads of the cache miss path, sent to a read replica when {@link ReplicaDataSources} has a healthy one.
+ * Products written by this instance within the last {@code maxLag} may not have reached the replicas yet, their
+ * reads stay on the primary. So does the confirmation of anything a replica reports missing, a product created
+ * elsewhere would otherwise be cached as a tombstone until it replicates.
+ * <p>
+ * Updates that replicate late are covered by the row version: the backfill of a stale copy loses against the
+ * version the invalidation recorded in Redis.
+ */
+@Component
+public class ProductReadRouter {
+
+    private final ProductRepository productRepository;
+    private final ReplicaDataSources replicas;
+    private final Cache<UUID, Boolean> recentWrites;
+
+    public ProductReadRouter(
+        ProductRepository productRepository,
+        ReplicaDataSources replicas,
+        ReplicaProperties properties) {
+        this.productRepository = productRepository;
+        this.replicas = replicas;
+        this.recentWrites = Caffeine.newBuilder()
+            .expireAfterWrite(properties.maxLag())
+            .maximumSize(properties.recentWritesMaximumSize())
+            .build();
+    }
+
+    public void recordWrite(UUID id) {
+        if (replicas.isEnabled()) {
+            recentWrites.put(id, Boolean.TRUE);
+        }
+    }
+
+    public void recordWrites(Collection<UUID> ids) {
+        if (replicas.isEnabled()) {
+            ids.forEach(id -> recentWrites.put(id, Boolean.TRUE));
+        }
+    }
+
+    public Product findById(UUID id) {
+        if (!replicas.isEnabled() || isRecentlyWritten(id)) {
+            return replicas.readPrimary(() -> productRepository.findById(id).orElse(null));
+        }
+        Product product = replicas.read(() -> productRepository.findById(id).orElse(null));
+        return product != null ? product : replicas.readPrimary(() -> productRepository.findById(id).orElse(null));
+    }
+
+    public Iterable<Product> findAllById(Collection<UUID> ids) {
+        if (!replicas.isEnabled()) {
+            return replicas.readPrimary(() -> productRepository.findAllById(ids));
+        }
+        List<UUID> fromReplica = new ArrayList<>(ids.size());
+        List<UUID> fromPrimary = new ArrayList<>();
+        ids.forEach(id -> (isRecentlyWritten(id) ? fromPrimary : fromReplica).add(id));
+
+        List<Product> products = new ArrayList<>(ids.size());
+        if (!fromReplica.isEmpty()) {
+            replicas.read(() -> productRepository.findAllById(fromReplica)).forEach(products::add);
+            // Whatever the replica didn't have is asked again, together with the recent writes
+            Set<UUID> found = products.stream().map(Product::getId).collect(Collectors.toSet());
+            fromReplica.stream().filter(id -> !found.contains(id)).forEach(fromPrimary::add);
+        }
+        if (!fromPrimary.isEmpty()) {
+            replicas.readPrimary(() -> productRepository.findAllById(fromPrimary)).forEach(products::add);
+        }
+        return products;
+    }
+
+    private boolean isRecentlyWritten(UUID id) {
+        return recentWrites.getIfPresent(id) != null;
+    }
+}
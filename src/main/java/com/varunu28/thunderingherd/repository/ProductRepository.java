@@ -1,10 +1,41 @@
 package com.varunu28.thunderingherd.repository;
 
 import com.varunu28.thunderingherd.model.Product;
+import jakarta.persistence.QueryHint;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface ProductRepository extends CrudRepository<Product, UUID> {
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select p.id from Product p")
+    Stream<UUID> streamAllIds();
+
+    @Query("select p.id from Product p order by p.launchedAt desc")
+    List<UUID> findRecentlyLaunchedIds(Pageable pageable);
+
+    // Newest first, served by idx_products_launched_at_id. Read-only so Hibernate keeps no snapshots of the rows.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "100"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select p from Product p order by p.launchedAt desc, p.id desc")
+    Stream<Product> streamNewest(Limit limit);
+
+    // Keyset continuation of streamNewest: a row value comparison, so the index seeks straight to the cursor
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "100"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("""
+        select p from Product p
+        where (p.launchedAt, p.id) < (:launchedAt, :id)
+        order by p.launchedAt desc, p.id desc""")
+    Stream<Product> streamLaunchedBefore(Date launchedAt, UUID id, Limit limit);
 }
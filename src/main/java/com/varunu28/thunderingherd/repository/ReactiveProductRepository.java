@@ -0,0 +1,71 @@
+package com.varunu28.thunderingherd.repository;
+
+import com.varunu28.thunderingherd.model.Product;
+import io.r2dbc.spi.Readable;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC access to the products table for the reactive profile. {@link Product} is a JPA entity, so rows are
+ * mapped by hand rather than through Spring Data R2DBC repositories.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveProductRepository {
+
+    private static final String COLUMNS = "id, name, description, price, launched_at, updated_at, version";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveProductRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Product> findById(UUID id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM products WHERE id = :id")
+            .bind("id", id)
+            .map(ReactiveProductRepository::toProduct)
+            .one();
+    }
+
+    public Flux<Product> findAllById(Collection<UUID> ids) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM products WHERE id = ANY(:ids)")
+            .bind("ids", ids.toArray(UUID[]::new))
+            .map(ReactiveProductRepository::toProduct)
+            .all();
+    }
+
+    public Mono<Void> insert(Product product) {
+        return databaseClient.sql("INSERT INTO products (" + COLUMNS + ") "
+                + "VALUES (:id, :name, :description, :price, :launchedAt, :updatedAt, :version)")
+            .bind("id", product.getId())
+            .bind("name", product.getName())
+            .bind("description", product.getDescription())
+            .bind("price", product.getPrice())
+            .bind("launchedAt", new Timestamp(product.getLaunchedAt().getTime()).toLocalDateTime())
+            .bind("updatedAt", new Timestamp(product.getUpdatedAt().getTime()).toLocalDateTime())
+            .bind("version", product.getVersion())
+            .then();
+    }
+
+    private static Product toProduct(Readable row) {
+        LocalDateTime launchedAt = row.get("launched_at", LocalDateTime.class);
+        LocalDateTime updatedAt = row.get("updated_at", LocalDateTime.class);
+        return new Product(
+            row.get("id", UUID.class),
+            row.get("name", String.class),
+            row.get("description", String.class),
+            row.get("price", BigDecimal.class),
+            launchedAt == null ? null : Timestamp.valueOf(launchedAt),
+            updatedAt == null ? null : Timestamp.valueOf(updatedAt),
+            row.get("version", Long.class));
+    }
+}
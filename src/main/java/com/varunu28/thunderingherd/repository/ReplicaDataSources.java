@@ -0,0 +1,249 @@
+package com.varunu28.thunderingherd.repository;
+
+import com.varunu28.thunderingherd.config.ReplicaProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Connection pools for the Postgres read replicas, and the choice of which one serves a read. Every
+ * {@code healthCheckInterval} each replica is asked how far its replay lags behind the primary: replicas that
+ * can't be reached, or lag more than {@code maxLag}, are left out until a later check passes. So is a replica once its
+ * last check is too old to vouch for {@code maxLag} anymore, which keeps {@code healthCheckInterval} well below it.
+ * Reads are spread round-robin or sent to the replica with the lowest observed latency.
+ * <p>
+ * The routing data source asks {@link #currentLookupKey()} which pool the calling thread was sent to, the
+ * primary is used whenever it returns {@code null}.
+ */
+@Component
+public class ReplicaDataSources {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSources.class);
+
+    // A standby is only caught up while it streams from the primary and has replayed all it received. One that lost
+    // its WAL receiver has replayed everything too, so its lag is the age of the last replayed transaction. Roles
+    // without pg_read_all_stats only see the pid of the receiver, its status is null for them
+    private static final String LAG_QUERY = """
+        SELECT CASE
+            WHEN NOT pg_is_in_recovery() THEN 0
+            WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn()
+                AND EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status IS NULL OR status = 'streaming')
+            THEN 0
+            ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())::float8, 'Infinity')
+        END""";
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final ReplicaProperties properties;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ThreadLocal<String> current = new ThreadLocal<>();
+    private final ScheduledExecutorService healthChecker;
+    private final Counter primaryReads;
+
+    public ReplicaDataSources(
+        ReplicaProperties properties,
+        DataSourceProperties primaryProperties,
+        MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.primaryReads = readCounter("primary", meterRegistry);
+        if (properties.enabled()) {
+            for (ReplicaProperties.Node node : properties.nodes()) {
+                String name = "replica-" + replicas.size();
+                HikariDataSource pool = pool(name, node, primaryProperties, meterRegistry);
+                Replica replica = new Replica(name, pool, readCounter(name, meterRegistry));
+                replicas.add(replica);
+                Gauge.builder("product.db.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("1 while the replica takes reads, 0 while it is unreachable or lagging")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+                Gauge.builder("product.db.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replay lag of the replica reported by its last health check")
+                    .tag("replica", replica.name)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            }
+        }
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("product-replica-health-check").daemon().factory());
+        if (isEnabled()) {
+            long intervalMillis = properties.healthCheckInterval().toMillis();
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static Counter readCounter(String target, MeterRegistry meterRegistry) {
+        return Counter.builder("product.db.routed.reads")
+            .description("Cache miss queries by the data source that answered them")
+            .tag("target", target)
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return !replicas.isEmpty();
+    }
+
+    // Keyed by replica name, for AbstractRoutingDataSource
+    public Map<Object, Object> targets() {
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        replicas.forEach(replica -> targets.put(replica.name, replica.dataSource));
+        return targets;
+    }
+
+    public Object currentLookupKey() {
+        return current.get();
+    }
+
+    /**
+     * Runs {@code query} against a healthy replica, or against the primary when no replica is available or the
+     * replica fails it. A replica that fails a query is taken out of rotation until its next health check passes.
+     */
+    public <T> T read(Supplier<T> query) {
+        Replica replica = select();
+        if (replica == null) {
+            return readPrimary(query);
+        }
+        long startedAt = System.nanoTime();
+        current.set(replica.name);
+        T result;
+        try {
+            result = query.get();
+        } catch (RuntimeException e) {
+            markDown(replica, e);
+            return readPrimary(query);
+        } finally {
+            current.remove();
+        }
+        replica.recordLatency(System.nanoTime() - startedAt);
+        replica.reads.increment();
+        return result;
+    }
+
+    public <T> T readPrimary(Supplier<T> query) {
+        primaryReads.increment();
+        return query.get();
+    }
+
+    private Replica select() {
+        long now = System.nanoTime();
+        List<Replica> healthy = replicas.stream().filter(replica -> isFresh(replica, now)).toList();
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        return switch (properties.selection()) {
+            case ROUND_ROBIN -> healthy.get(Math.floorMod(nextReplica.getAndIncrement(), healthy.size()));
+            case LEAST_LATENCY -> healthy.stream()
+                .min(Comparator.comparingDouble(replica -> replica.latencyNanos))
+                .orElseThrow();
+        };
+    }
+
+    // The lag a replica reported grows by the time since its check, a stuck health check must not keep it in rotation
+    private boolean isFresh(Replica replica, long now) {
+        return replica.healthy
+            && replica.lagSeconds * 1e9 <= properties.maxLag().toNanos() - (now - replica.checkedAt);
+    }
+
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            long startedAt = System.nanoTime();
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout((int) Math.max(1, properties.connectionTimeout().toSeconds()));
+                double lagSeconds;
+                try (ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                    resultSet.next();
+                    lagSeconds = resultSet.getDouble(1);
+                }
+                replica.recordLatency(System.nanoTime() - startedAt);
+                replica.checkedAt = startedAt;
+                replica.lagSeconds = lagSeconds;
+                boolean caughtUp = lagSeconds * 1000 <= properties.maxLag().toMillis();
+                if (caughtUp != replica.healthy) {
+                    log.warn("Replica {} {} reads, replay lag {}s", replica.name,
+                        caughtUp ? "takes" : "no longer takes", lagSeconds);
+                }
+                replica.healthy = caughtUp;
+            } catch (SQLException | RuntimeException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    private void markDown(Replica replica, Exception e) {
+        if (replica.healthy) {
+            log.warn("Replica {} no longer takes reads: {}", replica.name, e.toString());
+        }
+        replica.healthy = false;
+    }
+
+    private HikariDataSource pool(
+        String name,
+        ReplicaProperties.Node node,
+        DataSourceProperties primaryProperties,
+        MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(node.url());
+        dataSource.setUsername(node.username() != null ? node.username() : primaryProperties.determineUsername());
+        dataSource.setPassword(node.password() != null ? node.password() : primaryProperties.determinePassword());
+        dataSource.setMaximumPoolSize(node.maximumPoolSize());
+        dataSource.setReadOnly(true);
+        // Waiting long for a dead replica would stall the miss path, the primary can serve instead
+        dataSource.setConnectionTimeout(properties.connectionTimeout().toMillis());
+        // Don't fail startup over a replica, the health check keeps it out of rotation
+        dataSource.setInitializationFailTimeout(-1);
+        // Not beans, so the pool metrics auto-configuration doesn't see them
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        healthChecker.shutdownNow();
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final HikariDataSource dataSource;
+        private final Counter reads;
+        // Unhealthy until the first health check passes
+        private volatile boolean healthy;
+        private volatile double latencyNanos;
+        private volatile double lagSeconds;
+        private volatile long checkedAt;
+
+        private Replica(String name, HikariDataSource dataSource, Counter reads) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.reads = reads;
+        }
+
+        // Exponentially weighted, racy updates only lose a sample
+        private void recordLatency(long nanos) {
+            latencyNanos = latencyNanos == 0 ? nanos : latencyNanos + LATENCY_SMOOTHING * (nanos - latencyNanos);
+        }
+    }
+}
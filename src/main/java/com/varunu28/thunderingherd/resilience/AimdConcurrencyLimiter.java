@@ -0,0 +1,101 @@
+package com.varunu28.thunderingherd.resilience;
+
+import com.varunu28.thunderingherd.config.LoadLimitProperties;
+import com.varunu28.thunderingherd.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caps the number of product queries running against Postgres at once. The cap adapts with AIMD: it grows by
+ * one for every query that completes under the latency threshold while the limiter is at least half utilised,
+ * and is multiplied by the backoff ratio whenever a query is slow or fails. Queries over the cap are rejected
+ * immediately instead of queueing for a database connection.
+ */
+@Component
+public class AimdConcurrencyLimiter {
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final Duration retryAfter;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejections;
+    private double limit;
+    private volatile int currentLimit;
+
+    public AimdConcurrencyLimiter(LoadLimitProperties properties, MeterRegistry meterRegistry) {
+        LoadLimitProperties.AdaptiveLimit adaptive = properties.adaptive();
+        this.enabled = adaptive.enabled();
+        this.minLimit = adaptive.minLimit();
+        this.maxLimit = adaptive.maxLimit();
+        this.latencyThresholdNanos = adaptive.latencyThreshold().toNanos();
+        this.backoffRatio = adaptive.backoffRatio();
+        this.retryAfter = properties.retryAfter();
+        this.limit = Math.clamp(adaptive.initialLimit(), minLimit, maxLimit);
+        this.currentLimit = (int) limit;
+        this.rejections = Counter.builder("product.loader.limit.rejections")
+            .description("Product queries rejected because the concurrency limit was reached")
+            .register(meterRegistry);
+        Gauge.builder("product.loader.limit", this, AimdConcurrencyLimiter::limit)
+            .description("Current adaptive limit on concurrent product queries")
+            .register(meterRegistry);
+        Gauge.builder("product.loader.limit.in.flight", inFlight, AtomicInteger::get)
+            .description("Product queries currently holding a permit")
+            .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> query) {
+        if (!enabled) {
+            return query.get();
+        }
+        int inFlightAtStart = tryAcquire();
+        if (inFlightAtStart < 0) {
+            rejections.increment();
+            throw new ServiceOverloadedException("Too many concurrent product loads", retryAfter);
+        }
+        long startedAt = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = query.get();
+            failed = false;
+            return result;
+        } finally {
+            inFlight.decrementAndGet();
+            onSample(System.nanoTime() - startedAt, failed, inFlightAtStart);
+        }
+    }
+
+    public int limit() {
+        return currentLimit;
+    }
+
+    // Returns the number of queries in flight including this one, or -1 when the limit is reached
+    private int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private synchronized void onSample(long latencyNanos, boolean failed, int inFlightAtStart) {
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (inFlightAtStart * 2 >= limit) {
+            // Only grow when the current limit is actually being used, otherwise it drifts up to maxLimit
+            limit = Math.min(maxLimit, limit + 1);
+        }
+        currentLimit = (int) limit;
+    }
+}
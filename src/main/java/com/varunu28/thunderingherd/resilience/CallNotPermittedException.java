@@ -0,0 +1,9 @@
+package com.varunu28.thunderingherd.resilience;
+
+// Thrown instead of issuing a call while the circuit is open
+public class CallNotPermittedException extends RuntimeException {
+
+    public CallNotPermittedException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,189 @@
+package com.varunu28.thunderingherd.resilience;
+
+import com.varunu28.thunderingherd.config.RedisCircuitBreakerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Guards every Redis command of the product cache. While closed it tracks the outcome of the last
+ * {@code slidingWindowSize} calls and opens once their failure rate reaches the threshold. While open, calls are
+ * rejected with a {@link CallNotPermittedException} without touching the network, so callers fall back to their
+ * degraded path immediately instead of waiting for timeouts. After {@code openDuration} a few probe calls are let
+ * through: if all of them succeed the circuit closes again, a single failure opens it for another round.
+ */
+@Component
+public class RedisCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisCircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final boolean enabled;
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenProbes;
+    private final LongSupplier nanoClock;
+    private final Counter rejections;
+    // Ring buffer of the latest outcomes in the closed state, true for a failure
+    private final boolean[] outcomes;
+    private int position;
+    private int bufferedCalls;
+    private int failedCalls;
+    private int probesStarted;
+    private int probesSucceeded;
+    private volatile long openedAt;
+    private volatile State state = State.CLOSED;
+
+    @Autowired
+    public RedisCircuitBreaker(RedisCircuitBreakerProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    RedisCircuitBreaker(RedisCircuitBreakerProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.enabled = properties.enabled();
+        this.failureRateThreshold = properties.failureRateThreshold();
+        this.minimumCalls = Math.min(properties.minimumCalls(), properties.slidingWindowSize());
+        this.openDurationNanos = properties.openDuration().toNanos();
+        this.halfOpenProbes = properties.halfOpenProbes();
+        this.nanoClock = nanoClock;
+        this.outcomes = new boolean[properties.slidingWindowSize()];
+        this.rejections = Counter.builder("product.cache.redis.circuit.rejections")
+            .description("Redis commands not issued because the circuit breaker was open")
+            .register(meterRegistry);
+        for (State gaugedState : State.values()) {
+            Gauge.builder("product.cache.redis.circuit.state", this, breaker -> breaker.state == gaugedState ? 1 : 0)
+                .description("1 for the current state of the Redis circuit breaker, 0 for the others")
+                .tag("state", gaugedState.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+        }
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        boolean probe = acquirePermission();
+        // Anything thrown counts as a failure, an Error must not leave a probe slot taken forever
+        boolean failed = true;
+        try {
+            T result = call.get();
+            failed = false;
+            return result;
+        } finally {
+            onResult(failed, probe);
+        }
+    }
+
+    // Cheap check for callers that would rather skip optional work, like a backfill, than have it rejected
+    public boolean isCallPermitted() {
+        if (!enabled || state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            return switch (state) {
+                case CLOSED -> true;
+                case OPEN -> nanoClock.getAsLong() - openedAt >= openDurationNanos && halfOpenProbes > 0;
+                case HALF_OPEN -> probesStarted < halfOpenProbes;
+            };
+        }
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public synchronized double failureRate() {
+        return bufferedCalls == 0 ? 0 : (double) failedCalls / bufferedCalls;
+    }
+
+    // Returns whether the call is a half-open probe, throws when it is not permitted at all
+    private boolean acquirePermission() {
+        if (state == State.CLOSED) {
+            return false;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (nanoClock.getAsLong() - openedAt < openDurationNanos) {
+                    throw reject();
+                }
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesStarted >= halfOpenProbes) {
+                    throw reject();
+                }
+                probesStarted++;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private synchronized void onResult(boolean failed, boolean probe) {
+        if (probe) {
+            if (state != State.HALF_OPEN) {
+                return;
+            }
+            if (failed) {
+                transitionTo(State.OPEN);
+            } else if (++probesSucceeded >= halfOpenProbes) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        // Calls that were already running when the circuit opened don't count towards the next window
+        if (state != State.CLOSED) {
+            return;
+        }
+        if (bufferedCalls == outcomes.length) {
+            if (outcomes[position]) {
+                failedCalls--;
+            }
+        } else {
+            bufferedCalls++;
+        }
+        outcomes[position] = failed;
+        if (failed) {
+            failedCalls++;
+        }
+        position = (position + 1) % outcomes.length;
+        if (bufferedCalls >= minimumCalls && failedCalls >= failureRateThreshold * bufferedCalls) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void transitionTo(State next) {
+        log.warn("Redis circuit breaker transitioning from {} to {}", state, next);
+        switch (next) {
+            case OPEN -> openedAt = nanoClock.getAsLong();
+            case HALF_OPEN -> {
+                probesStarted = 0;
+                probesSucceeded = 0;
+            }
+            case CLOSED -> {
+                position = 0;
+                bufferedCalls = 0;
+                failedCalls = 0;
+            }
+        }
+        state = next;
+    }
+
+    private CallNotPermittedException reject() {
+        rejections.increment();
+        return new CallNotPermittedException("Redis circuit breaker is " + state);
+    }
+}
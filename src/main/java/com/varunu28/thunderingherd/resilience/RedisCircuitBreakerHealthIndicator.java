@@ -0,0 +1,31 @@
+package com.varunu28.thunderingherd.resilience;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the Redis circuit breaker as the {@code redisCircuitBreaker} health component. Anything but a closed
+ * circuit is {@code DEGRADED}: products are still served, from Postgres and the local fallback cache.
+ */
+@Component
+public class RedisCircuitBreakerHealthIndicator implements HealthIndicator {
+
+    static final Status DEGRADED = new Status("DEGRADED", "Redis is bypassed while the circuit is not closed");
+
+    private final RedisCircuitBreaker circuitBreaker;
+
+    public RedisCircuitBreakerHealthIndicator(RedisCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public Health health() {
+        RedisCircuitBreaker.State state = circuitBreaker.state();
+        return Health.status(state == RedisCircuitBreaker.State.CLOSED ? Status.UP : DEGRADED)
+            .withDetail("state", state)
+            .withDetail("failureRate", circuitBreaker.failureRate())
+            .build();
+    }
+}
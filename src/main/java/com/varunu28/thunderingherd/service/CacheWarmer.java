@@ -0,0 +1,147 @@
+package com.varunu28.thunderingherd.service;
+
+import com.varunu28.thunderingherd.cache.HotKeySketch;
+import com.varunu28.thunderingherd.cache.HotKeyTracker;
+import com.varunu28.thunderingherd.config.WarmUpProperties;
+import com.varunu28.thunderingherd.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Preloads the hottest products into Redis and the near cache on startup. Application runners complete
+ * before the readiness state switches to accepting traffic, so instances only take requests once warm.
+ * The ids come from the hot key snapshot this class persists periodically, or from the most recently launched
+ * products when there is no snapshot yet. Ids are loaded in batches at a bounded rate, through the regular
+ * batch read path, so a fleet warming up at once doesn't hit Postgres as a herd of its own.
+ */
+@Component
+public class CacheWarmer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final HotKeyTracker hotKeyTracker;
+    private final WarmUpProperties properties;
+    private final ScheduledExecutorService scheduler;
+
+    public CacheWarmer(
+        ProductService productService,
+        ProductRepository productRepository,
+        HotKeyTracker hotKeyTracker,
+        WarmUpProperties properties) {
+        this.productService = productService;
+        this.productRepository = productRepository;
+        this.hotKeyTracker = hotKeyTracker;
+        this.properties = properties;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("product-hot-key-snapshot").daemon().factory());
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (properties.enabled()) {
+            warmUp();
+        }
+        // Snapshots are kept even while warm-up is off, so that it has hot keys to start from once it is turned on
+        if (hotKeyTracker.isEnabled()) {
+            long snapshotMillis = properties.snapshotInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(
+                this::persistSnapshot, snapshotMillis, snapshotMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void warmUp() {
+        long startedAt = System.nanoTime();
+        List<UUID> ids = idsToWarm();
+        long deadline = startedAt + properties.timeout().toNanos();
+        long batchIntervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, properties.maxBatchesPerSecond());
+        int warmed = 0;
+        for (int from = 0; from < ids.size(); from += properties.batchSize()) {
+            long batchStartedAt = System.nanoTime();
+            if (batchStartedAt >= deadline) {
+                log.warn("Cache warm-up timed out after {} of {} products", warmed, ids.size());
+                break;
+            }
+            List<UUID> batch = ids.subList(from, Math.min(from + properties.batchSize(), ids.size()));
+            try {
+                warmed += productService.getProductsByIds(batch).size();
+            } catch (RuntimeException e) {
+                log.warn("Failed to warm a batch of {} products", batch.size(), e);
+            }
+            sleepNanos(batchStartedAt + batchIntervalNanos - System.nanoTime());
+        }
+        log.info("Warmed {} products in {} ms", warmed, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    private List<UUID> idsToWarm() {
+        Path snapshotFile = properties.snapshotFile();
+        if (Files.isReadable(snapshotFile)) {
+            try (var lines = Files.lines(snapshotFile)) {
+                List<UUID> ids = lines.filter(line -> !line.isBlank()).map(UUID::fromString).toList();
+                log.info("Warming {} products from hot key snapshot {}", ids.size(), snapshotFile);
+                return ids;
+            } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+                log.warn("Ignoring unreadable hot key snapshot {}", snapshotFile, e);
+            }
+        }
+        if (properties.fallbackSize() <= 0) {
+            return List.of();
+        }
+        List<UUID> ids = productRepository.findRecentlyLaunchedIds(PageRequest.of(0, properties.fallbackSize()));
+        log.info("Warming the {} most recently launched products", ids.size());
+        return ids;
+    }
+
+    // Written to a temporary file first, so a crash mid-write never leaves a truncated snapshot behind
+    void persistSnapshot() {
+        List<String> ids = hotKeyTracker.topK().stream()
+            .map(HotKeySketch.HotKey::id)
+            .map(UUID::toString)
+            .toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        Path snapshotFile = properties.snapshotFile().toAbsolutePath();
+        try {
+            Path temporaryFile = Files.createTempFile(snapshotFile.getParent(), "hot-keys", ".tmp");
+            Files.write(temporaryFile, ids);
+            Files.move(temporaryFile, snapshotFile,
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to persist the hot key snapshot to {}", snapshotFile, e);
+        }
+    }
+
+    private static void sleepNanos(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,18 @@
+package com.varunu28.thunderingherd.service;
+
+import com.varunu28.thunderingherd.model.Product;
+
+/**
+ * Outcome of a conditional product read. The product is {@code null} when the client already holds the
+ * representation tagged {@code etag}, in which case it was never decoded.
+ */
+public record ConditionalProduct(Product product, String etag) {
+
+    public static ConditionalProduct notModified(String etag) {
+        return new ConditionalProduct(null, etag);
+    }
+
+    public boolean isNotModified() {
+        return product == null;
+    }
+}
@@ -0,0 +1,91 @@
+package com.varunu28.thunderingherd.service;
+
+import com.varunu28.thunderingherd.cache.CachedProduct;
+import com.varunu28.thunderingherd.cache.HotKeyTracker;
+import com.varunu28.thunderingherd.cache.ProductNearCache;
+import com.varunu28.thunderingherd.cache.RedisProductCache;
+import com.varunu28.thunderingherd.config.HotKeyProperties;
+import com.varunu28.thunderingherd.metrics.ProductCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the hot keys reported by {@link HotKeyTracker} pinned in the near cache. Every {@code refreshInterval}
+ * the pinned copies are re-read from Redis with a single MGET, and entries about to expire in Redis are
+ * reloaded ahead of time, so a hot key never goes through a cache miss.
+ */
+@Component
+public class HotKeyRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(HotKeyRefresher.class);
+
+    private final HotKeyTracker hotKeyTracker;
+    private final ProductNearCache nearCache;
+    private final RedisProductCache redisCache;
+    private final ProductService productService;
+    private final long refreshAheadMillis;
+    private final ScheduledExecutorService scheduler;
+
+    public HotKeyRefresher(
+        HotKeyTracker hotKeyTracker,
+        ProductNearCache nearCache,
+        RedisProductCache redisCache,
+        ProductService productService,
+        ProductCacheMetrics cacheMetrics,
+        HotKeyProperties properties) {
+        this.hotKeyTracker = hotKeyTracker;
+        this.nearCache = nearCache;
+        this.redisCache = redisCache;
+        this.productService = productService;
+        this.refreshAheadMillis = properties.refreshAhead().toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("product-hot-key-refresher").daemon().factory());
+        cacheMetrics.monitorPinnedKeys(nearCache);
+        if (hotKeyTracker.isEnabled() && nearCache.isEnabled()) {
+            long refreshMillis = properties.refreshInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::refresh, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void refresh() {
+        try {
+            List<UUID> hotKeys = hotKeyTracker.hotKeys();
+            nearCache.retainPinned(hotKeys);
+            if (hotKeys.isEmpty()) {
+                return;
+            }
+            List<CachedProduct> cachedProducts = redisCache.getAll(hotKeys);
+            long refreshBefore = System.currentTimeMillis() + refreshAheadMillis;
+            for (int i = 0; i < hotKeys.size(); i++) {
+                UUID id = hotKeys.get(i);
+                CachedProduct cachedProduct = cachedProducts.get(i);
+                if (cachedProduct == null || cachedProduct.isTombstone()) {
+                    nearCache.unpin(id);
+                    if (cachedProduct == null) {
+                        productService.refreshAsync(id);
+                    }
+                    continue;
+                }
+                // A write invalidating the key in between is picked up again on the next round
+                nearCache.pin(id, cachedProduct.product());
+                if (cachedProduct.isStale(refreshBefore)) {
+                    productService.refreshAsync(id);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh hot product keys", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,51 @@
+package com.varunu28.thunderingherd.service;
+
+import com.varunu28.thunderingherd.model.Product;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A cache miss load shared by every request waiting for the same id. Waiters are reference counted, and once
+ * the last one gives up the load is cancelled so the loader can skip the query and the backfill.
+ */
+final class InFlightLoad {
+
+    private final CompletableFuture<Product> result = new CompletableFuture<>();
+    private final AtomicInteger waiters = new AtomicInteger(1);
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    CompletableFuture<Product> result() {
+        return result;
+    }
+
+    // Fails once the load has been abandoned, the caller has to start a new one then
+    boolean join() {
+        while (true) {
+            int current = waiters.get();
+            if (current <= 0) {
+                return false;
+            }
+            if (waiters.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Called by a waiter that stops waiting before the load is done. Returns {@code true} when that waiter was
+     * the last one and the load got cancelled, in which case the caller must release the load.
+     */
+    boolean leave() {
+        return waiters.decrementAndGet() == 0 && result.cancel(false) && finish();
+    }
+
+    boolean isCancelled() {
+        return result.isCancelled();
+    }
+
+    // Returns true exactly once, for whoever gets to release the load's slot
+    boolean finish() {
+        return finished.compareAndSet(false, true);
+    }
+}
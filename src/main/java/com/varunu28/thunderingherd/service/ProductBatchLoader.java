@@ -0,0 +1,171 @@
+package com.varunu28.thunderingherd.service;
+
+import com.varunu28.thunderingherd.config.BatchLoaderProperties;
+import com.varunu28.thunderingherd.config.LoaderExecutorProperties;
+import com.varunu28.thunderingherd.exception.ProductNotFoundException;
+import com.varunu28.thunderingherd.metrics.ProductLoadMetrics;
+import com.varunu28.thunderingherd.model.Product;
+import com.varunu28.thunderingherd.repository.ProductReadRouter;
+import com.varunu28.thunderingherd.resilience.AimdConcurrencyLimiter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * DataLoader-style batching of database loads for distinct keys. Loads requested within {@code window} of
+ * the first one, or until {@code maxSize} ids are pending, are executed as a single {@code findAllById}.
+ * Every caller gets its own future, and only the futures of ids the database doesn't have fail.
+ * <p>
+ * Callers wait for their future on the loader executor, so batches run on threads of their own: queued behind
+ * those waiters on the same pool they would never run. That pool is capped at {@code max-threads} of the loader
+ * executor, so at most that many queries are in flight whether or not the concurrency limiter is enabled.
+ */
+@Component
+public class ProductBatchLoader {
+
+    private final ProductReadRouter readRouter;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxSize;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService flushExecutor;
+    private final DistributionSummary batchSizes;
+    private final ProductLoadMetrics loadMetrics;
+    private final AimdConcurrencyLimiter concurrencyLimiter;
+    private final Object lock = new Object();
+    private Map<UUID, CompletableFuture<Product>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed;
+
+    public ProductBatchLoader(
+        ProductReadRouter readRouter,
+        BatchLoaderProperties properties,
+        LoaderExecutorProperties executorProperties,
+        MeterRegistry meterRegistry,
+        ProductLoadMetrics loadMetrics,
+        AimdConcurrencyLimiter concurrencyLimiter) {
+        this.readRouter = readRouter;
+        this.enabled = properties.enabled();
+        this.windowNanos = properties.window().toNanos();
+        this.maxSize = properties.maxSize();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("product-batch-loader").daemon().factory());
+        // Queued batches always run eventually, only shutdown rejects them
+        ThreadPoolExecutor flushPool = new ThreadPoolExecutor(
+            executorProperties.maxThreads(),
+            executorProperties.maxThreads(),
+            60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            Thread.ofPlatform().name("product-batch-flush-", 0).daemon().factory());
+        flushPool.allowCoreThreadTimeOut(true);
+        this.flushExecutor = flushPool;
+        this.batchSizes = DistributionSummary.builder("product.loader.batch.size")
+            .description("Number of distinct ids loaded per database query")
+            .register(meterRegistry);
+        this.loadMetrics = loadMetrics;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<Product> load(UUID id) {
+        Map<UUID, CompletableFuture<Product>> fullBatch = null;
+        CompletableFuture<Product> future;
+        synchronized (lock) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new RejectedExecutionException("Batch loader is shut down"));
+            }
+            future = pending.get(id);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pending.put(id, future);
+            if (pending.size() >= maxSize) {
+                fullBatch = takePending();
+            } else if (pending.size() == 1) {
+                scheduledFlush = scheduler.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return future;
+    }
+
+    private void flush() {
+        Map<UUID, CompletableFuture<Product>> batch;
+        synchronized (lock) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    // Must be called while holding the lock
+    private Map<UUID, CompletableFuture<Product>> takePending() {
+        Map<UUID, CompletableFuture<Product>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<UUID, CompletableFuture<Product>> batch) {
+        batchSizes.record(batch.size());
+        try {
+            flushExecutor.execute(() -> run(batch));
+        } catch (RejectedExecutionException e) {
+            // Only happens during shutdown, nobody would ever complete these futures otherwise
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private void run(Map<UUID, CompletableFuture<Product>> batch) {
+        try {
+            Iterable<Product> products = concurrencyLimiter.execute(
+                () -> loadMetrics.recordFindAllById(() -> readRouter.findAllById(batch.keySet())));
+            products.forEach(product -> {
+                CompletableFuture<Product> future = batch.get(product.getId());
+                if (future != null) {
+                    future.complete(product);
+                }
+            });
+            batch.forEach((id, future) -> future.completeExceptionally(new ProductNotFoundException(id)));
+        } catch (RuntimeException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Map<UUID, CompletableFuture<Product>> batch;
+        synchronized (lock) {
+            closed = true;
+            batch = takePending();
+        }
+        // The scheduled flush is cancelled, so nobody would ever complete these futures otherwise
+        RejectedExecutionException e = new RejectedExecutionException("Batch loader is shut down");
+        batch.values().forEach(future -> future.completeExceptionally(e));
+        scheduler.shutdownNow();
+        flushExecutor.shutdown();
+    }
+}
@@ -0,0 +1,121 @@
+package com.varunu28.thunderingherd.service;
+
+import com.varunu28.thunderingherd.cache.ProductNearCache;
+import com.varunu28.thunderingherd.config.InvalidationProperties;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Subscribes to the {@code product_changes} channel the products table triggers notify on, see
+ * {@code scripts/init.sql}, and evicts the cached copies of every product updated or deleted in Postgres, whoever
+ * wrote it. The subscription holds one pooled connection for as long as the application runs.
+ */
+@Component
+public class ProductChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeListener.class);
+
+    private final DataSource dataSource;
+    private final ProductService productService;
+    private final ProductNearCache nearCache;
+    private final InvalidationProperties properties;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public ProductChangeListener(
+        DataSource dataSource,
+        ProductService productService,
+        ProductNearCache nearCache,
+        InvalidationProperties properties) {
+        this.dataSource = dataSource;
+        this.productService = productService;
+        this.nearCache = nearCache;
+        this.properties = properties;
+        this.thread = Thread.ofPlatform().name("product-change-listener").daemon().unstarted(this::listen);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (properties.enabled()) {
+            thread.start();
+        }
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                // LISTEN only takes effect once committed
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.channel());
+                }
+                if (reconnecting) {
+                    // Whatever changed while we were away went unnoticed, at least L1 can start over
+                    nearCache.invalidateAll();
+                    log.info("Resubscribed to product changes");
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications =
+                        pgConnection.getNotifications((int) properties.pollInterval().toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            onNotification(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Lost the product change subscription, retrying in {}: {}",
+                    properties.reconnectBackoff(), e.toString());
+                reconnecting = true;
+                sleep(properties.reconnectBackoff().toMillis());
+            }
+        }
+    }
+
+    // '<op>:<id>:<version>', as sent by products_notify_change()
+    void onNotification(String payload) {
+        String[] parts = payload.split(":");
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed product change notification '{}'", payload);
+            return;
+        }
+        try {
+            boolean updated = parts[0].equals("UPDATE");
+            productService.evict(
+                UUID.fromString(parts[1]), Long.parseLong(parts[2]), updated && properties.refreshOnUpdate());
+        } catch (RuntimeException e) {
+            log.warn("Failed to handle product change notification '{}'", payload, e);
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            running = false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        thread.interrupt();
+        thread.join(properties.pollInterval().toMillis() * 2);
+    }
+}
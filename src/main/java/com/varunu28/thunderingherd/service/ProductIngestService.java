@@ -0,0 +1,179 @@
+package com.varunu28.thunderingherd.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.varunu28.thunderingherd.cache.ProductIdBloomFilter;
+import com.varunu28.thunderingherd.cache.ProductPageCache;
+import com.varunu28.thunderingherd.cache.RedisProductCache;
+import com.varunu28.thunderingherd.config.IngestProperties;
+import com.varunu28.thunderingherd.dto.BulkCreateProductsResultDto;
+import com.varunu28.thunderingherd.dto.CreateProductDto;
+import com.varunu28.thunderingherd.model.Product;
+import com.varunu28.thunderingherd.repository.ProductReadRouter;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Bulk product creation for catalog imports. The request body is parsed as a stream, so the import never has
+ * to fit in memory, and products are inserted with one JDBC batch per chunk. Ids are generated here rather than
+ * by Hibernate, which can't batch inserts for generated ids. Every chunk commits on its own: a malformed
+ * document stops the import, but keeps the chunks written before it.
+ */
+@Service
+public class ProductIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductIngestService.class);
+
+    private static final String INSERT_PRODUCT =
+        "INSERT INTO products (id, name, description, price, launched_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ProductIdBloomFilter bloomFilter;
+    private final RedisProductCache redisCache;
+    private final ProductPageCache pageCache;
+    private final ProductReadRouter readRouter;
+    private final Tracer tracer;
+    private final IngestProperties properties;
+
+    public ProductIngestService(
+        JdbcTemplate jdbcTemplate,
+        ObjectMapper objectMapper,
+        Validator validator,
+        ProductIdBloomFilter bloomFilter,
+        RedisProductCache redisCache,
+        ProductPageCache pageCache,
+        ProductReadRouter readRouter,
+        Tracer tracer,
+        IngestProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.bloomFilter = bloomFilter;
+        this.redisCache = redisCache;
+        this.pageCache = pageCache;
+        this.readRouter = readRouter;
+        this.tracer = tracer;
+        this.properties = properties;
+    }
+
+    /**
+     * Creates every valid product of a JSON array of {@link CreateProductDto}. Invalid products, including those
+     * with fields of the wrong type, are skipped and counted as rejected.
+     */
+    public BulkCreateProductsResultDto ingest(InputStream body) throws IOException {
+        long created = 0;
+        long rejected = 0;
+        List<Product> chunk = new ArrayList<>(properties.chunkSize());
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array of products");
+            }
+            JsonStreamContext arrayContext = parser.getParsingContext();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                CreateProductDto createProductDto;
+                try {
+                    createProductDto = objectMapper.readValue(parser, CreateProductDto.class);
+                } catch (MismatchedInputException e) {
+                    skipRestOfElement(parser, arrayContext);
+                    rejected++;
+                    continue;
+                }
+                if (createProductDto == null || !validator.validate(createProductDto).isEmpty()) {
+                    rejected++;
+                    continue;
+                }
+                chunk.add(new Product(
+                    UUID.randomUUID(),
+                    createProductDto.name(),
+                    createProductDto.description(),
+                    BigDecimal.valueOf(createProductDto.price())));
+                if (chunk.size() >= properties.chunkSize()) {
+                    created += insert(chunk);
+                    chunk = new ArrayList<>(properties.chunkSize());
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += insert(chunk);
+        }
+        return new BulkCreateProductsResultDto(created, rejected);
+    }
+
+    // Binding stops wherever the bad value is, possibly deep inside the element
+    private static void skipRestOfElement(JsonParser parser, JsonStreamContext arrayContext) throws IOException {
+        while (parser.getParsingContext() != arrayContext) {
+            if (parser.currentToken().isStructStart()) {
+                parser.skipChildren();
+            } else if (parser.nextToken() == null) {
+                throw new JsonParseException(parser, "Unexpected end of the product array");
+            }
+        }
+    }
+
+    private int insert(List<Product> products) {
+        Span span = tracer.nextSpan()
+            .name("product.save")
+            .tag("operation", "bulkCreate")
+            .tag("product.count", Integer.toString(products.size()))
+            .start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            jdbcTemplate.batchUpdate(INSERT_PRODUCT, products, products.size(), (statement, product) -> {
+                statement.setObject(1, product.getId());
+                statement.setString(2, product.getName());
+                statement.setString(3, product.getDescription());
+                statement.setBigDecimal(4, product.getPrice());
+                statement.setTimestamp(5, new Timestamp(product.getLaunchedAt().getTime()));
+                statement.setTimestamp(6, new Timestamp(product.getUpdatedAt().getTime()));
+            });
+            List<UUID> ids = products.stream().map(Product::getId).toList();
+            bloomFilter.addAll(ids);
+            readRouter.recordWrites(ids);
+            invalidatePages();
+            if (properties.writeThrough()) {
+                writeThrough(products);
+            }
+            return products.size();
+        } finally {
+            span.end();
+        }
+    }
+
+    private void invalidatePages() {
+        try {
+            pageCache.invalidateAll();
+        } catch (RuntimeException e) {
+            log.warn("Failed to invalidate the cached product listing: {}", e.toString());
+        }
+    }
+
+    // The products are in Postgres already, a failed cache write only costs a miss later on
+    private void writeThrough(List<Product> products) {
+        Map<UUID, Product> byId = new LinkedHashMap<>();
+        products.forEach(product -> byId.put(product.getId(), product));
+        try {
+            redisCache.putAll(byId, List.of(), 0);
+        } catch (RuntimeException e) {
+            log.warn("Failed to write {} imported products through to the cache", products.size(), e);
+        }
+    }
+}
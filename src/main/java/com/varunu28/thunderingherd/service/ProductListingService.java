@@ -0,0 +1,177 @@
+package com.varunu28.thunderingherd.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.varunu28.thunderingherd.cache.CacheTier;
+import com.varunu28.thunderingherd.cache.ProductPageCache;
+import com.varunu28.thunderingherd.config.ListingProperties;
+import com.varunu28.thunderingherd.dto.ListedProductDto;
+import com.varunu28.thunderingherd.exception.InvalidPageRequestException;
+import com.varunu28.thunderingherd.metrics.ProductCacheMetrics;
+import com.varunu28.thunderingherd.model.Product;
+import com.varunu28.thunderingherd.repository.ProductRepository;
+import com.varunu28.thunderingherd.resilience.CallNotPermittedException;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import javax.crypto.SecretKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Lists products newest first with keyset pagination on {@code (launched_at, id)}. A page is rendered to JSON
+ * while its rows stream in from Postgres,
+ *
+ * <pre>
+ * {"products": [{"id": "...", ...}, ...], "next_cursor": "..."}
+ * </pre>
+ *
+ * with {@code next_cursor} null on the last page. One row beyond the page is fetched to tell whether another
+ * page follows. The first pages are cached in Redis, see {@link ProductPageCache}.
+ */
+@Service
+public class ProductListingService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductListingService.class);
+
+    private final ProductRepository productRepository;
+    private final ProductPageCache pageCache;
+    private final ProductCacheMetrics cacheMetrics;
+    private final ObjectWriter productWriter;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Tracer tracer;
+    private final ListingProperties properties;
+    private final SecretKey cursorKey;
+
+    public ProductListingService(
+        ProductRepository productRepository,
+        ProductPageCache pageCache,
+        ProductCacheMetrics cacheMetrics,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        Tracer tracer,
+        ListingProperties properties) {
+        this.productRepository = productRepository;
+        this.pageCache = pageCache;
+        this.cacheMetrics = cacheMetrics;
+        this.productWriter = objectMapper.writerFor(ListedProductDto.class);
+        this.objectMapper = objectMapper;
+        // Streaming query results need an open transaction to keep the connection and its cursor
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.tracer = tracer;
+        this.properties = properties;
+        this.cursorKey = ProductPageCursor.key(cursorSecret(properties));
+    }
+
+    private static byte[] cursorSecret(ListingProperties properties) {
+        if (properties.cursorSecret() != null && !properties.cursorSecret().isBlank()) {
+            return properties.cursorSecret().getBytes(StandardCharsets.UTF_8);
+        }
+        log.warn("product.listing.cursor-secret is not set, page cursors only work on the instance that issued them");
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    /**
+     * Returns the rendered page after {@code cursor}, or the first page when it is {@code null}.
+     *
+     * @param limit products per page, the configured default when {@code null}
+     */
+    public byte[] listProducts(String cursor, Integer limit) {
+        int pageSize = limit == null ? properties.defaultPageSize() : limit;
+        if (pageSize < 1 || pageSize > properties.maxPageSize()) {
+            throw new InvalidPageRequestException("limit must be between 1 and " + properties.maxPageSize());
+        }
+        ProductPageCursor position = cursor == null ? null : ProductPageCursor.decode(cursor, cursorKey);
+        int page = position == null ? 0 : position.page();
+        if (!pageCache.caches(page)) {
+            return render(position, pageSize);
+        }
+
+        ProductPageCache.Lookup lookup = null;
+        try {
+            lookup = pageCache.get(pageSize, cursor);
+        } catch (RuntimeException e) {
+            // Without the generation the rendered page can't be cached either
+            recordRedisFailure("read", page, e);
+        }
+        if (lookup != null && lookup.page() != null) {
+            cacheMetrics.recordHit(CacheTier.PAGE);
+            return lookup.page();
+        }
+        cacheMetrics.recordMiss(CacheTier.PAGE);
+        byte[] body = render(position, pageSize);
+        if (lookup != null) {
+            try {
+                pageCache.put(lookup.generation(), pageSize, cursor, body);
+            } catch (RuntimeException e) {
+                recordRedisFailure("write", page, e);
+            }
+        }
+        return body;
+    }
+
+    // Postgres still has the answer, only an outage the circuit breaker doesn't know about yet is worth a warning
+    private static void recordRedisFailure(String operation, int page, RuntimeException e) {
+        if (!(e instanceof CallNotPermittedException)) {
+            log.warn("Failed to {} page {} of the product listing in Redis: {}", operation, page, e.toString());
+        }
+    }
+
+    private byte[] render(ProductPageCursor position, int pageSize) {
+        Span span = tracer.nextSpan()
+            .name("product.list")
+            .tag("product.page", Integer.toString(position == null ? 0 : position.page()))
+            .tag("product.count", Integer.toString(pageSize))
+            .start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return readOnlyTransaction.execute(status -> {
+                try (Stream<Product> products = position == null
+                    ? productRepository.streamNewest(Limit.of(pageSize + 1))
+                    : productRepository.streamLaunchedBefore(
+                        position.launchedAtTimestamp(), position.id(), Limit.of(pageSize + 1))) {
+                    return write(products.iterator(), position == null ? 1 : position.page() + 1, pageSize);
+                }
+            });
+        } finally {
+            span.end();
+        }
+    }
+
+    private byte[] write(Iterator<Product> products, int nextPage, int pageSize) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.createGenerator(output)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("products");
+            Product last = null;
+            int written = 0;
+            while (written < pageSize && products.hasNext()) {
+                last = products.next();
+                productWriter.writeValue(generator, ListedProductDto.from(last));
+                written++;
+            }
+            generator.writeEndArray();
+            // The extra row only tells that there is more, it belongs to the next page
+            String nextCursor = products.hasNext() ? ProductPageCursor.after(nextPage, last).encode(cursorKey) : null;
+            generator.writeStringField("next_cursor", nextCursor);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not render the product listing", e);
+        }
+        return output.toByteArray();
+    }
+}
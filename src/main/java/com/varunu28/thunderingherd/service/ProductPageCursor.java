@@ -0,0 +1,89 @@
+package com.varunu28.thunderingherd.service;
+
+import com.varunu28.thunderingherd.exception.InvalidPageRequestException;
+import com.varunu28.thunderingherd.model.Product;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Position of a page in the product listing: the number of the page and the {@code (launched_at, id)} of the last
+ * product before it. Clients get it as an opaque token. The timestamp keeps the microseconds Postgres stores, a
+ * cursor rounded to milliseconds would skip products launched within the same millisecond.
+ * <p>
+ * Tokens are signed with an HMAC, so a client can't make up positions or renumber pages to get them cached.
+ */
+public record ProductPageCursor(int page, Instant launchedAt, UUID id) {
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 16;
+    private static final char SIGNATURE_SEPARATOR = '.';
+
+    public static ProductPageCursor after(int page, Product last) {
+        Date launchedAt = last.getLaunchedAt();
+        // Hibernate loads TIMESTAMP columns as java.sql.Timestamp, whose toInstant() has the nanoseconds
+        return new ProductPageCursor(page, launchedAt.toInstant(), last.getId());
+    }
+
+    public static SecretKey key(byte[] secret) {
+        return new SecretKeySpec(secret, MAC_ALGORITHM);
+    }
+
+    public static ProductPageCursor decode(String token, SecretKey key) {
+        try {
+            int separator = token.indexOf(SIGNATURE_SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Missing signature");
+            }
+            byte[] payload = Base64.getUrlDecoder().decode(token.substring(0, separator));
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(signature, sign(payload, key))) {
+                throw new IllegalArgumentException("Signature mismatch");
+            }
+            String[] parts = new String(payload, StandardCharsets.UTF_8).split(":");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Expected 4 fields, got " + parts.length);
+            }
+            int page = Integer.parseInt(parts[0]);
+            if (page < 1) {
+                throw new IllegalArgumentException("Page " + page + " is out of range");
+            }
+            Instant launchedAt = Instant.ofEpochSecond(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            return new ProductPageCursor(page, launchedAt, UUID.fromString(parts[3]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidPageRequestException("Invalid cursor '" + token + "'");
+        }
+    }
+
+    public String encode(SecretKey key) {
+        String value = page + ":" + launchedAt.getEpochSecond() + ":" + launchedAt.getNano() + ":" + id;
+        byte[] payload = value.getBytes(StandardCharsets.UTF_8);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payload) + SIGNATURE_SEPARATOR + encoder.encodeToString(sign(payload, key));
+    }
+
+    public Timestamp launchedAtTimestamp() {
+        return Timestamp.from(launchedAt);
+    }
+
+    // A truncated HMAC-SHA256 is plenty for a cursor, and keeps the token short
+    private static byte[] sign(byte[] payload, SecretKey key) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return Arrays.copyOf(mac.doFinal(payload), SIGNATURE_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign the page cursor", e);
+        }
+    }
+}
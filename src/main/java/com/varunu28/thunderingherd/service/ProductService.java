@@ -1,40 +1,125 @@
 package com.varunu28.thunderingherd.service;
 
+import com.varunu28.thunderingherd.cache.CacheTier;
+import com.varunu28.thunderingherd.cache.CachedProduct;
+import com.varunu28.thunderingherd.cache.HotKeyTracker;
+import com.varunu28.thunderingherd.cache.ProductIdBloomFilter;
+import com.varunu28.thunderingherd.cache.ProductETag;
+import com.varunu28.thunderingherd.cache.ProductFallbackCache;
+import com.varunu28.thunderingherd.cache.ProductNearCache;
+import com.varunu28.thunderingherd.cache.ProductPageCache;
+import com.varunu28.thunderingherd.cache.ProductResponseCodec;
+import com.varunu28.thunderingherd.cache.RedisProductCache;
+import com.varunu28.thunderingherd.cache.SerializedProductResponse;
+import com.varunu28.thunderingherd.config.InvalidationProperties;
+import com.varunu28.thunderingherd.config.LeaseProperties;
+import com.varunu28.thunderingherd.config.LoadLimitProperties;
 import com.varunu28.thunderingherd.exception.ProductNotFoundException;
+import com.varunu28.thunderingherd.exception.ServiceOverloadedException;
+import com.varunu28.thunderingherd.metrics.ProductCacheMetrics;
+import com.varunu28.thunderingherd.metrics.ProductLoadMetrics;
 import com.varunu28.thunderingherd.model.Product;
+import com.varunu28.thunderingherd.repository.ProductReadRouter;
 import com.varunu28.thunderingherd.repository.ProductRepository;
+import com.varunu28.thunderingherd.resilience.AimdConcurrencyLimiter;
+import com.varunu28.thunderingherd.resilience.CallNotPermittedException;
+import com.varunu28.thunderingherd.tracing.CacheHitSampler;
 import io.micrometer.tracing.Span;
 import io.micrometer.tracing.Tracer;
 import io.micrometer.tracing.annotation.ContinueSpan;
 import io.micrometer.tracing.annotation.SpanTag;
 import java.math.BigDecimal;
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import org.springframework.data.redis.core.RedisTemplate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 @Service
 public class ProductService {
 
-    private static final String PRODUCT_CACHE_KEY_PREFIX = "product:";
-    private static final Duration CACHE_TTL = Duration.ofMinutes(10);
+    private static final Logger log = LoggerFactory.getLogger(ProductService.class);
 
     private final ProductRepository productRepository;
+    private final ProductReadRouter readRouter;
+    private final ProductBatchLoader batchLoader;
     private final Tracer tracer;
-    private final RedisTemplate<String, Product> redisTemplate;
-    private final ConcurrentHashMap<UUID, CompletableFuture<Product>> ongoingRequests;
+    private final RedisProductCache redisCache;
+    private final ProductNearCache nearCache;
+    private final ProductFallbackCache fallbackCache;
+    private final ProductPageCache pageCache;
+    private final ProductIdBloomFilter bloomFilter;
+    private final HotKeyTracker hotKeyTracker;
+    private final ProductResponseCodec responseCodec;
+    private final ProductCacheMetrics cacheMetrics;
+    private final ProductLoadMetrics loadMetrics;
+    private final CacheHitSampler cacheHitSampler;
+    private final AimdConcurrencyLimiter concurrencyLimiter;
+    private final LeaseProperties leaseProperties;
+    private final LoadLimitProperties loadLimitProperties;
+    private final InvalidationProperties invalidationProperties;
+    private final ExecutorService loaderExecutor;
+    private final ConcurrentHashMap<UUID, InFlightLoad> ongoingRequests;
+    // Slots reserved before an entry goes into ongoingRequests, so the map can never grow past the cap
+    private final AtomicInteger inFlightLoads = new AtomicInteger();
 
     public ProductService(
         ProductRepository productRepository,
+        ProductReadRouter readRouter,
+        ProductBatchLoader batchLoader,
         Tracer tracer,
-        RedisTemplate<String, Product> redisTemplate) {
+        RedisProductCache redisCache,
+        ProductNearCache nearCache,
+        ProductFallbackCache fallbackCache,
+        ProductPageCache pageCache,
+        ProductIdBloomFilter bloomFilter,
+        HotKeyTracker hotKeyTracker,
+        ProductResponseCodec responseCodec,
+        ProductCacheMetrics cacheMetrics,
+        ProductLoadMetrics loadMetrics,
+        CacheHitSampler cacheHitSampler,
+        AimdConcurrencyLimiter concurrencyLimiter,
+        LeaseProperties leaseProperties,
+        LoadLimitProperties loadLimitProperties,
+        InvalidationProperties invalidationProperties,
+        @Qualifier("productLoaderExecutor") ExecutorService loaderExecutor) {
         this.productRepository = productRepository;
+        this.readRouter = readRouter;
+        this.batchLoader = batchLoader;
         this.tracer = tracer;
-        this.redisTemplate = redisTemplate;
+        this.redisCache = redisCache;
+        this.nearCache = nearCache;
+        this.fallbackCache = fallbackCache;
+        this.pageCache = pageCache;
+        this.bloomFilter = bloomFilter;
+        this.hotKeyTracker = hotKeyTracker;
+        this.responseCodec = responseCodec;
+        this.cacheMetrics = cacheMetrics;
+        this.loadMetrics = loadMetrics;
+        this.cacheHitSampler = cacheHitSampler;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.leaseProperties = leaseProperties;
+        this.loadLimitProperties = loadLimitProperties;
+        this.invalidationProperties = invalidationProperties;
+        this.loaderExecutor = loaderExecutor;
         this.ongoingRequests = new ConcurrentHashMap<>();
+        loadMetrics.monitorInFlightLoads(ongoingRequests);
     }
 
     @ContinueSpan
@@ -48,72 +133,748 @@ public class ProductService {
         try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
             Product savedProduct = productRepository.save(product);
             span.tag("product.id", savedProduct.getId().toString());
+            bloomFilter.add(savedProduct.getId());
+            readRouter.recordWrite(savedProduct.getId());
+            invalidatePages();
             return savedProduct.getId();
         } finally {
             span.end();
         }
     }
 
+    @ContinueSpan
+    public Product updateProduct(@SpanTag("product.id") UUID id, String name, String description, double price)
+        throws ProductNotFoundException {
+        Span span = buildSaveSpan("update", id);
+        Product savedProduct;
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            Product product = productRepository.findById(id).orElseThrow(() -> new ProductNotFoundException(id));
+            product.update(name, description, BigDecimal.valueOf(price));
+            savedProduct = productRepository.save(product);
+        } finally {
+            span.end();
+        }
+        // The database notification reaches every instance a little later, the writer doesn't wait for it
+        evict(id, savedProduct.getVersion(), invalidationProperties.refreshOnUpdate());
+        nearCache.broadcastInvalidation(id);
+        return savedProduct;
+    }
+
+    @ContinueSpan
+    public void deleteProduct(@SpanTag("product.id") UUID id) throws ProductNotFoundException {
+        Span span = buildSaveSpan("delete", id);
+        Product product;
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            product = productRepository.findById(id).orElseThrow(() -> new ProductNotFoundException(id));
+            productRepository.delete(product);
+        } finally {
+            span.end();
+        }
+        // Same version as the one the delete trigger announces
+        evict(id, product.getVersion() + 1, false);
+        nearCache.broadcastInvalidation(id);
+    }
+
+    /**
+     * Drops every cached copy of {@code id} older than {@code version}, after an update or a delete of the row.
+     * Only the first caller for a version finds anything to drop in Redis, so with {@code refresh} exactly one
+     * instance reloads the product instead of waiting for the next read to miss.
+     */
+    public void evict(UUID id, long version, boolean refresh) {
+        // Until the replicas catch up, the refresh and the next misses have to read the primary
+        readRouter.recordWrite(id);
+        nearCache.invalidate(id);
+        fallbackCache.invalidate(id);
+        invalidatePages();
+        boolean invalidated;
+        try {
+            invalidated = redisCache.invalidate(id, version);
+        } catch (RuntimeException e) {
+            // Nothing else will drop the entry, it stays stale until its TTL runs out
+            log.warn("Failed to invalidate the cached product {} at version {}: {}", id, version, e.toString());
+            return;
+        }
+        if (invalidated && refresh) {
+            refreshAsync(id);
+        }
+    }
+
+    // New, changed and deleted products all shift the listing
+    private void invalidatePages() {
+        try {
+            pageCache.invalidateAll();
+        } catch (RuntimeException e) {
+            // The cached pages stay until their TTL runs out
+            log.warn("Failed to invalidate the cached product listing: {}", e.toString());
+        }
+    }
+
     @ContinueSpan
     public Product getProductById(@SpanTag("product.id") UUID id) throws ProductNotFoundException {
-        String cacheKey = PRODUCT_CACHE_KEY_PREFIX + id;
-        // Perform a cache lookup first
-        Span redisLookupSpan = buildSpan("cacheLookup", cacheKey, id);
-        try (Tracer.SpanInScope ignored = tracer.withSpan(redisLookupSpan)) {
-            Product productFromCache = redisTemplate.opsForValue().get(cacheKey);
-            if (productFromCache != null) {
-                return productFromCache;
+        admit(id);
+        // Cache hits are only traced for a sample of requests, unsampled ones don't even build their spans
+        boolean traceCacheHit = cacheHitSampler.sampleCacheHit();
+        Product productFromNearCache = getFromNearCache(id, traceCacheHit);
+        if (productFromNearCache != null) {
+            return productFromNearCache;
+        }
+        return getFromRedisOrLoad(id, traceCacheHit);
+    }
+
+    /**
+     * The response body of {@link #getProductById}, already rendered to JSON. A Redis hit returns the body cached
+     * next to the entry without materializing the product at all, every other tier renders the product it found.
+     */
+    @ContinueSpan
+    public SerializedProductResponse getProductResponse(@SpanTag("product.id") UUID id)
+        throws ProductNotFoundException {
+        admit(id);
+        boolean traceCacheHit = cacheHitSampler.sampleCacheHit();
+        Product productFromNearCache = getFromNearCache(id, traceCacheHit);
+        if (productFromNearCache != null) {
+            return responseCodec.render(productFromNearCache);
+        }
+        Span redisLookupSpan = traceCacheHit ? buildSpan("responseCacheLookup", id) : null;
+        try (Tracer.SpanInScope ignored = redisLookupSpan == null ? null : tracer.withSpan(redisLookupSpan)) {
+            SerializedProductResponse cachedResponse = getResponseFromRedis(id, redisLookupSpan);
+            if (cachedResponse != null) {
+                cacheMetrics.recordHit(CacheTier.REDIS);
+                if (!traceCacheHit) {
+                    cacheHitSampler.dropCacheHitTrace();
+                }
+                return cachedResponse;
             }
         } finally {
-            redisLookupSpan.end();
+            if (redisLookupSpan != null) {
+                redisLookupSpan.end();
+            }
+        }
+        // Not rendered yet, or stale: the regular path takes care of refreshing and backfilling it
+        return responseCodec.render(getFromRedisOrLoad(id, traceCacheHit));
+    }
+
+    private SerializedProductResponse getResponseFromRedis(UUID id, Span span) {
+        try {
+            return redisCache.getResponse(id);
+        } catch (RuntimeException e) {
+            recordRedisUnavailable(e, span);
+            return null;
+        }
+    }
+
+    private void admit(UUID id) {
+        if (!bloomFilter.mightContain(id)) {
+            cacheMetrics.recordBloomFilterRejection();
+            throw new ProductNotFoundException(id);
+        }
+        hotKeyTracker.record(id);
+    }
+
+    // Local tier first, it answers hot keys without a network round trip
+    private Product getFromNearCache(UUID id, boolean traceCacheHit) {
+        if (!nearCache.isEnabled()) {
+            return null;
+        }
+        Product productFromNearCache = nearCache.getIfPresent(id);
+        if (productFromNearCache != null) {
+            cacheMetrics.recordHit(CacheTier.L1);
+            if (!traceCacheHit) {
+                cacheHitSampler.dropCacheHitTrace();
+            }
+            return productFromNearCache;
+        }
+        cacheMetrics.recordMiss(CacheTier.L1);
+        return null;
+    }
+
+    private Product getFromRedisOrLoad(UUID id, boolean traceCacheHit) {
+        // Then the shared Redis tier
+        boolean redisUnavailable = false;
+        Span redisLookupSpan = traceCacheHit ? buildSpan("cacheLookup", id) : null;
+        try (Tracer.SpanInScope ignored = redisLookupSpan == null ? null : tracer.withSpan(redisLookupSpan)) {
+            CachedProduct cachedProduct = null;
+            try {
+                cachedProduct = redisCache.get(id);
+            } catch (RuntimeException e) {
+                recordRedisUnavailable(e, redisLookupSpan);
+                redisUnavailable = true;
+            }
+            if (cachedProduct != null) {
+                cacheMetrics.recordHit(CacheTier.REDIS);
+                if (cachedProduct.isTombstone()) {
+                    throw new ProductNotFoundException(id);
+                }
+                if (redisCache.isStale(cachedProduct) || redisCache.shouldRecomputeEarly(cachedProduct)) {
+                    // Serve what we have and let a single coalesced load refresh the entry in the background
+                    loadAsync(id, true);
+                } else if (!traceCacheHit) {
+                    cacheHitSampler.dropCacheHitTrace();
+                }
+                nearCache.put(id, cachedProduct.product());
+                return cachedProduct.product();
+            }
+            if (!redisUnavailable) {
+                cacheMetrics.recordMiss(CacheTier.REDIS);
+            }
+        } finally {
+            if (redisLookupSpan != null) {
+                redisLookupSpan.end();
+            }
+        }
+
+        // Degraded mode: whatever was loaded since Redis went away
+        if (redisUnavailable) {
+            Product productFromFallback = fallbackCache.getIfPresent(id);
+            if (productFromFallback != null) {
+                cacheMetrics.recordHit(CacheTier.FALLBACK);
+                return productFromFallback;
+            }
+            cacheMetrics.recordMiss(CacheTier.FALLBACK);
         }
 
         // If not found in the cache, perform a database lookup and backfill the cache
-        CompletableFuture<Product> future = ongoingRequests.computeIfAbsent(id,
-            productId -> {
-            Span currentSpan = tracer.currentSpan();
-            return CompletableFuture.supplyAsync(() -> {
-                try (Tracer.SpanInScope ignoredSpan = tracer.withSpan(currentSpan)) {
-                    Span postgresLookupSpan = buildSpan("dbLookup", cacheKey, id);
-                    Product product;
-                    try (Tracer.SpanInScope ignored = tracer.withSpan(postgresLookupSpan)) {
-                        product = productRepository.findById(id)
-                            .orElseThrow(() -> new ProductNotFoundException(id));
-                    } finally {
-                        postgresLookupSpan.end();
-                    }
+        long deadline = System.nanoTime() + loadLimitProperties.waitTimeout().toNanos();
+        return await(id, loadAsync(id, false), deadline);
+    }
+
+    /**
+     * Conditional read for {@code If-None-Match}. When the product sits in L1, or Redis still holds a fresh ETag
+     * for it, and {@code etagMatches} accepts that tag, the client's copy is confirmed without decoding the
+     * product. Anything else takes the regular {@link #getProductById} path.
+     */
+    @ContinueSpan
+    public ConditionalProduct getProductUnlessMatched(@SpanTag("product.id") UUID id, Predicate<String> etagMatches)
+        throws ProductNotFoundException {
+        if (bloomFilter.mightContain(id)) {
+            Product productFromNearCache = nearCache.isEnabled() ? nearCache.getIfPresent(id) : null;
+            String etag = productFromNearCache != null ? ProductETag.of(productFromNearCache) : getETagFromRedis(id);
+            if (etag != null && etagMatches.test(etag)) {
+                hotKeyTracker.record(id);
+                cacheMetrics.recordHit(productFromNearCache != null ? CacheTier.L1 : CacheTier.REDIS);
+                if (!cacheHitSampler.sampleCacheHit()) {
+                    cacheHitSampler.dropCacheHitTrace();
+                }
+                return ConditionalProduct.notModified(etag);
+            }
+        }
+        Product product = getProductById(id);
+        String etag = ProductETag.of(product);
+        return etagMatches.test(etag) ? ConditionalProduct.notModified(etag) : new ConditionalProduct(product, etag);
+    }
+
+    private String getETagFromRedis(UUID id) {
+        try {
+            return redisCache.getETag(id);
+        } catch (RuntimeException e) {
+            recordRedisUnavailable(e, null);
+            return null;
+        }
+    }
+
+    // Bounded wait on a load that may be shared with other requests. Giving up only drops our reference, the
+    // load is cancelled once nobody else is waiting for it either.
+    private Product await(UUID id, InFlightLoad load, long deadline) {
+        try {
+            return load.result().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ProductNotFoundException notFound) {
+                throw notFound;
+            }
+            if (e.getCause() instanceof ServiceOverloadedException overloaded) {
+                throw overloaded;
+            }
+            throw new RuntimeException(e);
+        } catch (TimeoutException e) {
+            leave(id, load);
+            loadMetrics.recordWaitTimeout();
+            throw new ServiceOverloadedException("Timed out waiting for the product to load",
+                loadLimitProperties.retryAfter());
+        } catch (InterruptedException e) {
+            leave(id, load);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void leave(UUID id, InFlightLoad load) {
+        if (load.leave()) {
+            loadMetrics.recordLoadCancelled();
+            release(id, load);
+        }
+    }
 
-                    // Backfill the cache
-                    Span redisBackfillSpan = buildSpan("cacheBackfill", cacheKey, id);
-                    try (Tracer.SpanInScope ignored = tracer.withSpan(redisBackfillSpan)) {
-                        redisTemplate.opsForValue().set(cacheKey, product, CACHE_TTL);
-                    } finally {
-                        redisBackfillSpan.end();
+    /**
+     * Resolves many products at once: L1 first, then a single Redis MGET, and finally one {@code findAllById}
+     * for the ids nobody else is loading yet. Ids that are already being loaded by another request are joined
+     * through {@code ongoingRequests}, exactly like the single-key path. Unknown ids are left out of the result.
+     */
+    @ContinueSpan
+    public Map<UUID, Product> getProductsByIds(List<UUID> ids) {
+        boolean traceCacheHit = cacheHitSampler.sampleCacheHit();
+        Map<UUID, Product> found = new LinkedHashMap<>();
+        List<UUID> remaining = new ArrayList<>();
+        for (UUID id : new LinkedHashSet<>(ids)) {
+            if (!bloomFilter.mightContain(id)) {
+                cacheMetrics.recordBloomFilterRejection();
+                continue;
+            }
+            Product productFromNearCache = nearCache.getIfPresent(id);
+            if (productFromNearCache != null) {
+                cacheMetrics.recordHit(CacheTier.L1);
+                found.put(id, productFromNearCache);
+            } else {
+                if (nearCache.isEnabled()) {
+                    cacheMetrics.recordMiss(CacheTier.L1);
+                }
+                remaining.add(id);
+            }
+        }
+        if (remaining.isEmpty()) {
+            if (!traceCacheHit) {
+                cacheHitSampler.dropCacheHitTrace();
+            }
+            return found;
+        }
+
+        List<UUID> misses = new ArrayList<>();
+        boolean refreshing = false;
+        Span redisLookupSpan = traceCacheHit ? buildBatchSpan("cacheLookup", remaining.size()) : null;
+        try (Tracer.SpanInScope ignored = redisLookupSpan == null ? null : tracer.withSpan(redisLookupSpan)) {
+            List<CachedProduct> cachedProducts = null;
+            try {
+                cachedProducts = redisCache.getAll(remaining);
+            } catch (RuntimeException e) {
+                recordRedisUnavailable(e, redisLookupSpan);
+            }
+            for (int i = 0; i < remaining.size(); i++) {
+                UUID id = remaining.get(i);
+                if (cachedProducts == null) {
+                    Product productFromFallback = fallbackCache.getIfPresent(id);
+                    if (productFromFallback != null) {
+                        cacheMetrics.recordHit(CacheTier.FALLBACK);
+                        found.put(id, productFromFallback);
+                    } else {
+                        cacheMetrics.recordMiss(CacheTier.FALLBACK);
+                        misses.add(id);
                     }
-                    return product;
+                    continue;
+                }
+                CachedProduct cachedProduct = cachedProducts.get(i);
+                if (cachedProduct == null) {
+                    cacheMetrics.recordMiss(CacheTier.REDIS);
+                    misses.add(id);
+                    continue;
+                }
+                cacheMetrics.recordHit(CacheTier.REDIS);
+                if (cachedProduct.isTombstone()) {
+                    continue;
+                }
+                if (redisCache.isStale(cachedProduct) || redisCache.shouldRecomputeEarly(cachedProduct)) {
+                    loadAsync(id, true);
+                    refreshing = true;
+                }
+                nearCache.put(id, cachedProduct.product());
+                found.put(id, cachedProduct.product());
+            }
+        } finally {
+            if (redisLookupSpan != null) {
+                redisLookupSpan.end();
+            }
+        }
+        if (misses.isEmpty()) {
+            if (!traceCacheHit && !refreshing) {
+                cacheHitSampler.dropCacheHitTrace();
+            }
+            return found;
+        }
+
+        // Claim the ids nobody is loading yet, join the in-flight loads for the rest
+        Map<UUID, InFlightLoad> owned = new HashMap<>();
+        Map<UUID, InFlightLoad> pending = new LinkedHashMap<>();
+        try {
+            for (UUID id : misses) {
+                Claim claim = claim(id, false);
+                if (claim == null) {
+                    throw inFlightLimitReached();
+                }
+                if (claim.owner()) {
+                    owned.put(id, claim.load());
+                }
+                pending.put(id, claim.load());
+            }
+        } catch (ServiceOverloadedException e) {
+            // Nobody else can join a load we never run, and the ones we joined must not wait for us
+            owned.forEach((id, load) -> {
+                load.result().completeExceptionally(e);
+                if (load.finish()) {
+                    release(id, load);
+                }
+            });
+            pending.forEach((id, load) -> {
+                if (!owned.containsKey(id)) {
+                    leave(id, load);
+                }
+            });
+            throw e;
+        }
+        if (!owned.isEmpty()) {
+            loadAllAndBackfill(owned);
+        }
+
+        long deadline = System.nanoTime() + loadLimitProperties.waitTimeout().toNanos();
+        for (UUID id : misses) {
+            try {
+                found.put(id, await(id, pending.get(id), deadline));
+            } catch (ProductNotFoundException e) {
+                // Unknown ids are left out of the result
+            }
+        }
+        return found;
+    }
+
+    private void loadAllAndBackfill(Map<UUID, InFlightLoad> owned) {
+        try {
+            Span postgresLookupSpan = buildBatchSpan("dbLookup", owned.size());
+            Map<UUID, Product> products = new HashMap<>();
+            long loadStartedAt = System.nanoTime();
+            try (Tracer.SpanInScope ignored = tracer.withSpan(postgresLookupSpan)) {
+                concurrencyLimiter.execute(
+                    () -> loadMetrics.recordFindAllById(() -> readRouter.findAllById(owned.keySet())))
+                    .forEach(product -> products.put(product.getId(), product));
+            } finally {
+                postgresLookupSpan.end();
+            }
+            long computeMillis = (System.nanoTime() - loadStartedAt) / 1_000_000;
+            Set<UUID> missingIds = new LinkedHashSet<>(owned.keySet());
+            missingIds.removeAll(products.keySet());
+
+            // Backfills are skipped while the Redis circuit is open
+            Set<UUID> backfilled = null;
+            if (redisCache.isAvailable()) {
+                Span redisBackfillSpan = buildBatchSpan("cacheBackfill", owned.size());
+                try (Tracer.SpanInScope ignored = tracer.withSpan(redisBackfillSpan)) {
+                    backfilled = redisCache.putAll(products, missingIds, computeMillis);
+                } catch (RuntimeException e) {
+                    recordBackfillFailure(e, redisBackfillSpan);
+                } finally {
+                    redisBackfillSpan.end();
+                }
+            }
+            Set<UUID> keptLocally = backfilled;
+            products.forEach((id, product) -> {
+                if (keptLocally == null) {
+                    fallbackCache.put(id, product);
+                } else if (keptLocally.contains(id)) {
+                    nearCache.put(id, product);
+                    nearCache.broadcastInvalidation(id);
+                }
+                owned.get(id).result().complete(product);
+            });
+            missingIds.forEach(
+                id -> owned.get(id).result().completeExceptionally(new ProductNotFoundException(id)));
+        } catch (RuntimeException e) {
+            owned.values().forEach(load -> load.result().completeExceptionally(e));
+        } finally {
+            owned.forEach((id, load) -> {
+                if (load.finish()) {
+                    release(id, load);
+                }
+            });
+        }
+    }
+
+    /**
+     * Reloads {@code id} from the database and backfills the caches in the background, coalesced with any load
+     * already in flight for it.
+     */
+    public void refreshAsync(UUID id) {
+        loadAsync(id, true);
+    }
+
+    /**
+     * Starts a load for {@code id} or joins the one already in flight. Background refreshes don't wait for the
+     * result, so they neither count as a waiter nor start a load once the in-flight cap is reached, in which
+     * case this returns {@code null}. Waiting callers are rejected with a {@link ServiceOverloadedException}.
+     */
+    private InFlightLoad loadAsync(UUID id, boolean background) {
+        Claim claim = claim(id, background);
+        if (claim == null) {
+            if (background) {
+                return null;
+            }
+            throw inFlightLimitReached();
+        }
+        InFlightLoad load = claim.load();
+        if (!claim.owner()) {
+            return load;
+        }
+        Span currentSpan = tracer.currentSpan();
+        try {
+            loaderExecutor.execute(() -> {
+                if (load.isCancelled()) {
+                    // Every waiter gave up while the load was still queued
+                    return;
+                }
+                try (Tracer.SpanInScope ignoredSpan = tracer.withSpan(currentSpan)) {
+                    load.result().complete(
+                        leaseProperties.enabled() && redisCache.isAvailable()
+                            ? loadWithLease(id, load)
+                            : loadAndBackfill(id, null, load));
+                } catch (Throwable e) {
+                    load.result().completeExceptionally(e);
                 } finally {
-                    ongoingRequests.remove(productId);
+                    if (load.finish()) {
+                        release(id, load);
+                    }
                 }
             });
-        });
+        } catch (RejectedExecutionException e) {
+            // The loader queue is full, shed the request rather than queueing behind it
+            load.result().completeExceptionally(
+                new ServiceOverloadedException("Product loader queue is full", loadLimitProperties.retryAfter()));
+            if (load.finish()) {
+                release(id, load);
+            }
+        }
+        return load;
+    }
+
+    private record Claim(InFlightLoad load, boolean owner) {
+    }
+
+    // Joins the load in flight for id or registers a new one owned by the caller, null once the cap is reached
+    private Claim claim(UUID id, boolean background) {
+        while (true) {
+            InFlightLoad inFlight = ongoingRequests.get(id);
+            if (inFlight != null) {
+                if (background || inFlight.join()) {
+                    loadMetrics.recordLoadCoalesced();
+                    return new Claim(inFlight, false);
+                }
+                // Abandoned by its last waiter, it is on its way out of the map
+                ongoingRequests.remove(id, inFlight);
+                continue;
+            }
+            if (!reserveSlot()) {
+                loadMetrics.recordLoadRejected();
+                return null;
+            }
+            InFlightLoad load = new InFlightLoad();
+            if (ongoingRequests.putIfAbsent(id, load) == null) {
+                loadMetrics.recordLoadStarted();
+                return new Claim(load, true);
+            }
+            inFlightLoads.decrementAndGet();
+        }
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = inFlightLoads.get();
+            if (current >= loadLimitProperties.maxInFlight()) {
+                return false;
+            }
+            if (inFlightLoads.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release(UUID id, InFlightLoad load) {
+        ongoingRequests.remove(id, load);
+        inFlightLoads.decrementAndGet();
+    }
+
+    private ServiceOverloadedException inFlightLimitReached() {
+        return new ServiceOverloadedException("Too many product loads in flight", loadLimitProperties.retryAfter());
+    }
+
+    // Cluster-wide single flight: only the lease holder queries the database, everybody else polls the
+    // cache with exponential backoff until the holder has backfilled it
+    private Product loadWithLease(UUID id, InFlightLoad load) {
+        long deadline = System.nanoTime() + leaseProperties.maxWait().toNanos();
+        long backoffMillis = leaseProperties.initialBackoff().toMillis();
+        while (true) {
+            String leaseToken;
+            try {
+                leaseToken = redisCache.tryAcquireLease(id);
+            } catch (RuntimeException e) {
+                // Without Redis there is no lease to coordinate on, nor a cache the holder could fill
+                recordRedisUnavailable(e, null);
+                return loadAndBackfill(id, null, load);
+            }
+            if (leaseToken != null) {
+                try {
+                    return loadAndBackfill(id, leaseToken, load);
+                } catch (RuntimeException e) {
+                    redisCache.releaseLease(id, leaseToken);
+                    throw e;
+                }
+            }
+            if (System.nanoTime() >= deadline) {
+                // The holder is taking too long, stop waiting and load without a lease
+                return loadAndBackfill(id, null, load);
+            }
+            sleep(backoffMillis);
+            checkNotCancelled(load);
+            backoffMillis = Math.min(backoffMillis * 2, leaseProperties.maxBackoff().toMillis());
+            CachedProduct cachedProduct;
+            try {
+                cachedProduct = redisCache.get(id);
+            } catch (RuntimeException e) {
+                recordRedisUnavailable(e, null);
+                return loadAndBackfill(id, null, load);
+            }
+            if (cachedProduct != null) {
+                if (cachedProduct.isTombstone()) {
+                    throw new ProductNotFoundException(id);
+                }
+                nearCache.put(id, cachedProduct.product());
+                return cachedProduct.product();
+            }
+        }
+    }
+
+    private Product loadAndBackfill(UUID id, String leaseToken, InFlightLoad load) {
+        checkNotCancelled(load);
+        Span postgresLookupSpan = buildSpan("dbLookup", id);
+        Product product;
+        long loadStartedAt = System.nanoTime();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(postgresLookupSpan)) {
+            product = fetchProduct(id);
+        } finally {
+            postgresLookupSpan.end();
+        }
+        if (product == null) {
+            if (!redisCache.isAvailable()) {
+                throw new ProductNotFoundException(id);
+            }
+            // Remember the miss for a short while so repeated lookups for this id stay away from Postgres
+            try {
+                if (leaseToken == null) {
+                    redisCache.putTombstone(id);
+                } else {
+                    redisCache.putTombstoneIfLeaseHeld(id, leaseToken);
+                }
+            } catch (RuntimeException e) {
+                recordBackfillFailure(e, null);
+            }
+            throw new ProductNotFoundException(id);
+        }
+        long computeMillis = (System.nanoTime() - loadStartedAt) / 1_000_000;
+        checkNotCancelled(load);
+
+        // Backfill the cache, unless the Redis circuit is open
+        if (!redisCache.isAvailable()) {
+            fallbackCache.put(id, product);
+            return product;
+        }
+        boolean backfilled = true;
+        Span redisBackfillSpan = buildSpan("cacheBackfill", id);
+        try (Tracer.SpanInScope ignored = tracer.withSpan(redisBackfillSpan)) {
+            if (leaseToken == null) {
+                backfilled = redisCache.put(id, product, computeMillis);
+            } else {
+                backfilled = redisCache.putIfLeaseHeld(id, leaseToken, product, computeMillis);
+            }
+        } catch (RuntimeException e) {
+            recordBackfillFailure(e, redisBackfillSpan);
+            fallbackCache.put(id, product);
+            backfilled = false;
+        } finally {
+            redisBackfillSpan.end();
+        }
+        // A rejected backfill means the product changed while we were loading, don't keep it locally.
+        // Neither do we when Redis is unreachable, since invalidations can't reach us either.
+        if (backfilled) {
+            nearCache.put(id, product);
+            nearCache.broadcastInvalidation(id);
+        }
+        return product;
+    }
+
+    private Product fetchProduct(UUID id) {
+        if (!batchLoader.isEnabled()) {
+            return concurrencyLimiter.execute(
+                () -> loadMetrics.recordFindById(() -> readRouter.findById(id)));
+        }
+        // Bounded like the waits on shared loads, a batch stuck behind a slow database must not hold this thread
         try {
-            return future.get();
+            return batchLoader.load(id).get(loadLimitProperties.waitTimeout().toNanos(), TimeUnit.NANOSECONDS);
         } catch (ExecutionException e) {
             if (e.getCause() instanceof ProductNotFoundException) {
-                throw (ProductNotFoundException) e.getCause();
+                return null;
             }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e);
+        } catch (TimeoutException e) {
+            loadMetrics.recordWaitTimeout();
+            throw new ServiceOverloadedException("Timed out waiting for the product batch to load",
+                loadLimitProperties.retryAfter());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new RuntimeException(e);
+        }
+    }
+
+    // Nobody is waiting for the load anymore, skip the rest of the work
+    private static void checkNotCancelled(InFlightLoad load) {
+        if (load.isCancelled()) {
+            throw new CancellationException("Product load abandoned by every waiter");
+        }
+    }
+
+    // A failed or rejected read is treated as a miss, Postgres still has the answer
+    private void recordRedisUnavailable(RuntimeException e, Span span) {
+        if (span != null) {
+            span.error(e);
+        }
+        if (!(e instanceof CallNotPermittedException)) {
+            log.warn("Product cache read failed, falling back to the database: {}", e.toString());
+        }
+    }
+
+    // The product was loaded fine, so a cache write failure must not fail the request
+    private void recordBackfillFailure(RuntimeException e, Span span) {
+        loadMetrics.recordBackfillFailure();
+        if (span != null) {
+            span.error(e);
+        }
+        log.warn("Failed to backfill the product cache", e);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new RuntimeException(e);
         }
     }
 
-    private Span buildSpan(String operation, String productName, UUID productId) {
+    private Span buildSaveSpan(String operation, UUID productId) {
+        return tracer.nextSpan()
+            .name("product.save")
+            .tag("operation", operation)
+            .tag("product.id", productId.toString())
+            .start();
+    }
+
+    private Span buildBatchSpan(String operation, int productCount) {
+        return tracer.nextSpan()
+            .name("product.findAllById")
+            .tag("operation", operation)
+            .tag("product.count", Integer.toString(productCount))
+            .start();
+    }
+
+    private Span buildSpan(String operation, UUID productId) {
         return tracer.nextSpan()
             .name("product.findById")
             .tag("operation", operation)
-            .tag("product.name", productName)
+            .tag("product.name", RedisProductCache.key(productId))
             .tag("product.id", productId.toString())
             .start();
     }
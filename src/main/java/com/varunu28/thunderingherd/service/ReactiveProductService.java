@@ -0,0 +1,344 @@
+package com.varunu28.thunderingherd.service;
+
+import com.varunu28.thunderingherd.cache.CacheTier;
+import com.varunu28.thunderingherd.cache.CachedProduct;
+import com.varunu28.thunderingherd.cache.HotKeyTracker;
+import com.varunu28.thunderingherd.cache.ProductIdBloomFilter;
+import com.varunu28.thunderingherd.cache.ProductETag;
+import com.varunu28.thunderingherd.cache.ProductNearCache;
+import com.varunu28.thunderingherd.cache.ReactiveRedisProductCache;
+import com.varunu28.thunderingherd.config.LoadLimitProperties;
+import com.varunu28.thunderingherd.exception.ProductNotFoundException;
+import com.varunu28.thunderingherd.exception.ServiceOverloadedException;
+import com.varunu28.thunderingherd.metrics.ProductCacheMetrics;
+import com.varunu28.thunderingherd.metrics.ProductLoadMetrics;
+import com.varunu28.thunderingherd.model.Product;
+import com.varunu28.thunderingherd.repository.ReactiveProductRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The read path of {@link ProductService} without blocking a thread anywhere: L1, then reactive Redis, then
+ * R2DBC. Single flight works the same way, except that the shared load is a cached {@link Mono} per id that
+ * every concurrent miss subscribes to, instead of a future a thread waits on.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveProductService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveProductService.class);
+
+    private final ReactiveProductRepository productRepository;
+    private final ReactiveRedisProductCache redisCache;
+    private final ProductNearCache nearCache;
+    private final ProductIdBloomFilter bloomFilter;
+    private final HotKeyTracker hotKeyTracker;
+    private final ProductCacheMetrics cacheMetrics;
+    private final ProductLoadMetrics loadMetrics;
+    private final LoadLimitProperties loadLimitProperties;
+    private final ConcurrentHashMap<UUID, Mono<Product>> ongoingRequests = new ConcurrentHashMap<>();
+    // Slots reserved before an entry goes into ongoingRequests, so the map can never grow past the cap
+    private final AtomicInteger inFlightLoads = new AtomicInteger();
+
+    public ReactiveProductService(
+        ReactiveProductRepository productRepository,
+        ReactiveRedisProductCache redisCache,
+        ProductNearCache nearCache,
+        ProductIdBloomFilter bloomFilter,
+        HotKeyTracker hotKeyTracker,
+        ProductCacheMetrics cacheMetrics,
+        ProductLoadMetrics loadMetrics,
+        LoadLimitProperties loadLimitProperties) {
+        this.productRepository = productRepository;
+        this.redisCache = redisCache;
+        this.nearCache = nearCache;
+        this.bloomFilter = bloomFilter;
+        this.hotKeyTracker = hotKeyTracker;
+        this.cacheMetrics = cacheMetrics;
+        this.loadMetrics = loadMetrics;
+        this.loadLimitProperties = loadLimitProperties;
+    }
+
+    public Mono<UUID> createProduct(String name, String description, double price) {
+        Product product = new Product(UUID.randomUUID(), name, description, BigDecimal.valueOf(price));
+        return productRepository.insert(product)
+            .then(blocking(() -> bloomFilter.add(product.getId())))
+            .thenReturn(product.getId());
+    }
+
+    public Mono<Product> getProductById(UUID id) {
+        if (!bloomFilter.mightContain(id)) {
+            cacheMetrics.recordBloomFilterRejection();
+            return Mono.error(new ProductNotFoundException(id));
+        }
+        hotKeyTracker.record(id);
+
+        if (nearCache.isEnabled()) {
+            Product productFromNearCache = nearCache.getIfPresent(id);
+            if (productFromNearCache != null) {
+                cacheMetrics.recordHit(CacheTier.L1);
+                return Mono.just(productFromNearCache);
+            }
+            cacheMetrics.recordMiss(CacheTier.L1);
+        }
+
+        return redisCache.get(id)
+            .flatMap(cachedProduct -> fromRedis(id, cachedProduct))
+            .switchIfEmpty(Mono.defer(() -> {
+                cacheMetrics.recordMiss(CacheTier.REDIS);
+                return withWaitTimeout(share(id, loadAndBackfill(id)).result());
+            }));
+    }
+
+    // Conditional read for If-None-Match, see ProductService.getProductUnlessMatched
+    public Mono<ConditionalProduct> getProductUnlessMatched(UUID id, Predicate<String> etagMatches) {
+        Product productFromNearCache = nearCache.isEnabled() ? nearCache.getIfPresent(id) : null;
+        Mono<String> cachedETag;
+        if (!bloomFilter.mightContain(id)) {
+            cachedETag = Mono.empty();
+        } else if (productFromNearCache != null) {
+            cachedETag = Mono.just(ProductETag.of(productFromNearCache));
+        } else {
+            cachedETag = redisCache.getETag(id);
+        }
+        return cachedETag
+            .filter(etagMatches)
+            .map(etag -> {
+                hotKeyTracker.record(id);
+                cacheMetrics.recordHit(productFromNearCache != null ? CacheTier.L1 : CacheTier.REDIS);
+                return ConditionalProduct.notModified(etag);
+            })
+            .switchIfEmpty(Mono.defer(() -> getProductById(id).map(product -> {
+                String etag = ProductETag.of(product);
+                return etagMatches.test(etag)
+                    ? ConditionalProduct.notModified(etag)
+                    : new ConditionalProduct(product, etag);
+            })));
+    }
+
+    public Mono<Map<UUID, Product>> getProductsByIds(List<UUID> ids) {
+        Map<UUID, Product> found = new LinkedHashMap<>();
+        List<UUID> remaining = new ArrayList<>();
+        for (UUID id : new LinkedHashSet<>(ids)) {
+            if (!bloomFilter.mightContain(id)) {
+                cacheMetrics.recordBloomFilterRejection();
+                continue;
+            }
+            Product productFromNearCache = nearCache.getIfPresent(id);
+            if (productFromNearCache != null) {
+                cacheMetrics.recordHit(CacheTier.L1);
+                found.put(id, productFromNearCache);
+            } else {
+                if (nearCache.isEnabled()) {
+                    cacheMetrics.recordMiss(CacheTier.L1);
+                }
+                remaining.add(id);
+            }
+        }
+        if (remaining.isEmpty()) {
+            return Mono.just(found);
+        }
+
+        return redisCache.getAll(remaining).flatMap(cachedProducts -> {
+            List<UUID> misses = new ArrayList<>();
+            for (int i = 0; i < remaining.size(); i++) {
+                UUID id = remaining.get(i);
+                CachedProduct cachedProduct = cachedProducts.get(i);
+                if (cachedProduct == null) {
+                    cacheMetrics.recordMiss(CacheTier.REDIS);
+                    misses.add(id);
+                    continue;
+                }
+                cacheMetrics.recordHit(CacheTier.REDIS);
+                if (cachedProduct.isTombstone()) {
+                    continue;
+                }
+                refreshIfStale(id, cachedProduct);
+                nearCache.put(id, cachedProduct.product());
+                found.put(id, cachedProduct.product());
+            }
+            if (misses.isEmpty()) {
+                return Mono.just(found);
+            }
+            return withWaitTimeout(loadAll(misses).doOnNext(product -> found.put(product.getId(), product))
+                .then(Mono.fromSupplier(() -> found)));
+        });
+    }
+
+    private Mono<Product> fromRedis(UUID id, CachedProduct cachedProduct) {
+        cacheMetrics.recordHit(CacheTier.REDIS);
+        if (cachedProduct.isTombstone()) {
+            return Mono.error(new ProductNotFoundException(id));
+        }
+        refreshIfStale(id, cachedProduct);
+        nearCache.put(id, cachedProduct.product());
+        return Mono.just(cachedProduct.product());
+    }
+
+    // Serve what we have and let a single shared load refresh the entry in the background
+    private void refreshIfStale(UUID id, CachedProduct cachedProduct) {
+        if (redisCache.shouldRefresh(cachedProduct)) {
+            share(id, loadAndBackfill(id)).result().subscribe(product -> {
+            }, e -> {
+            });
+        }
+    }
+
+    // Ids another request is already loading are joined, the rest are read with a single findAllById
+    private Flux<Product> loadAll(List<UUID> misses) {
+        Map<UUID, SharedLoad> owned = new LinkedHashMap<>();
+        Mono<Map<UUID, Product>> batch = Mono.defer(() -> loadAllAndBackfill(owned.keySet())).cache();
+        List<Mono<Product>> pending = new ArrayList<>();
+        for (UUID id : misses) {
+            Mono<Product> fromBatch = batch.flatMap(products -> Mono.justOrEmpty(products.get(id)))
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException(id)));
+            SharedLoad sharedLoad = share(id, fromBatch);
+            if (sharedLoad.owner()) {
+                owned.put(id, sharedLoad);
+            }
+            // Unknown ids are left out of the result
+            pending.add(sharedLoad.result().onErrorResume(ProductNotFoundException.class, e -> Mono.empty()));
+        }
+        // A rejected share fails the merge before it subscribes to the loads after it, which would then stay
+        // registered forever. Loads that did start release their slot themselves once they finish
+        return Flux.mergeSequential(pending).doFinally(signal -> {
+            if (signal != SignalType.ON_COMPLETE) {
+                owned.forEach((id, sharedLoad) -> {
+                    if (!sharedLoad.started().get()) {
+                        release(id, sharedLoad.result());
+                    }
+                });
+            }
+        });
+    }
+
+    private Mono<Map<UUID, Product>> loadAllAndBackfill(Set<UUID> ids) {
+        long loadStartedAt = System.nanoTime();
+        return loadMetrics.recordFindAllById(productRepository.findAllById(ids))
+            .collectMap(Product::getId)
+            .flatMap(products -> {
+                long computeMillis = (System.nanoTime() - loadStartedAt) / 1_000_000;
+                Set<UUID> missingIds = new LinkedHashSet<>(ids);
+                missingIds.removeAll(products.keySet());
+                return redisCache.putAll(products, missingIds, computeMillis)
+                    .then(keepLocally(products))
+                    .onErrorResume(this::recordBackfillFailure)
+                    .thenReturn(products);
+            });
+    }
+
+    private Mono<Product> loadAndBackfill(UUID id) {
+        long loadStartedAt = System.nanoTime();
+        return loadMetrics.recordFindById(productRepository.findById(id))
+            .flatMap(product -> {
+                long computeMillis = (System.nanoTime() - loadStartedAt) / 1_000_000;
+                return redisCache.put(id, product, computeMillis)
+                    .then(keepLocally(Map.of(id, product)))
+                    .onErrorResume(this::recordBackfillFailure)
+                    .thenReturn(product);
+            })
+            // Remember the miss for a short while so repeated lookups for this id stay away from Postgres
+            .switchIfEmpty(Mono.defer(() -> redisCache.putTombstone(id)
+                .onErrorResume(this::recordBackfillFailure)
+                .then(Mono.error(new ProductNotFoundException(id)))));
+    }
+
+    // Only reached once Redis took the write, invalidations could not reach us otherwise
+    private Mono<Void> keepLocally(Map<UUID, Product> products) {
+        return blocking(() -> products.forEach((id, product) -> {
+            nearCache.put(id, product);
+            nearCache.broadcastInvalidation(id);
+        }));
+    }
+
+    // started tells whether anybody subscribed to the load yet, only meaningful for the owner
+    private record SharedLoad(Mono<Product> result, boolean owner, AtomicBoolean started) {
+    }
+
+    // Registers load as the one shared load for id, or joins the load already in flight for it
+    private SharedLoad share(UUID id, Mono<Product> load) {
+        while (true) {
+            Mono<Product> inFlight = ongoingRequests.get(id);
+            if (inFlight != null) {
+                loadMetrics.recordLoadCoalesced();
+                return new SharedLoad(inFlight, false, new AtomicBoolean(true));
+            }
+            if (!reserveSlot()) {
+                loadMetrics.recordLoadRejected();
+                return new SharedLoad(Mono.error(new ServiceOverloadedException(
+                    "Too many product loads in flight", loadLimitProperties.retryAfter())), false, new AtomicBoolean());
+            }
+            AtomicBoolean started = new AtomicBoolean();
+            AtomicReference<Mono<Product>> registered = new AtomicReference<>();
+            Mono<Product> shared = load
+                .doOnSubscribe(subscription -> started.set(true))
+                .doFinally(signal -> release(id, registered.get()))
+                .cache();
+            registered.set(shared);
+            if (ongoingRequests.putIfAbsent(id, shared) == null) {
+                loadMetrics.recordLoadStarted();
+                return new SharedLoad(shared, true, started);
+            }
+            inFlightLoads.decrementAndGet();
+        }
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = inFlightLoads.get();
+            if (current >= loadLimitProperties.maxInFlight()) {
+                return false;
+            }
+            if (inFlightLoads.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Whoever takes the entry out of the map gives its slot back, so a slot is never released twice
+    private void release(UUID id, Mono<Product> load) {
+        if (ongoingRequests.remove(id, load)) {
+            inFlightLoads.decrementAndGet();
+        }
+    }
+
+    // Giving up only cancels this subscriber, the shared load keeps going for everybody else
+    private <T> Mono<T> withWaitTimeout(Mono<T> result) {
+        return result.timeout(loadLimitProperties.waitTimeout(), Mono.defer(() -> {
+            loadMetrics.recordWaitTimeout();
+            return Mono.error(new ServiceOverloadedException(
+                "Timed out waiting for the product to load", loadLimitProperties.retryAfter()));
+        }));
+    }
+
+    // The product was loaded fine, so a cache write failure must not fail the request
+    private Mono<Void> recordBackfillFailure(Throwable e) {
+        loadMetrics.recordBackfillFailure();
+        log.warn("Failed to backfill the product cache", e);
+        return Mono.empty();
+    }
+
+    // Pub/sub publishes still go through the blocking template, keep them off the event loop
+    private static Mono<Void> blocking(Runnable task) {
+        return Mono.fromRunnable(task).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+}
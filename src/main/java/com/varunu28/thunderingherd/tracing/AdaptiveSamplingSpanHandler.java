@@ -0,0 +1,53 @@
+package com.varunu28.thunderingherd.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.varunu28.thunderingherd.config.TraceSamplingProperties;
+import java.time.Duration;
+
+/**
+ * Drops the spans of traces that {@link CacheHitSampler} marked as unsampled cache hits, unless they failed or
+ * were slow. It has to run before the Zipkin handler, returning {@code false} stops later handlers.
+ *
+ * <p>Children finish before their parents, so once a span carrying the drop tag finishes the rest of its local
+ * trace is remembered until the local root finishes.
+ */
+public class AdaptiveSamplingSpanHandler extends SpanHandler {
+
+    private final long slowThresholdMicros;
+    private final Cache<Long, Boolean> droppedTraces;
+
+    public AdaptiveSamplingSpanHandler(TraceSamplingProperties properties) {
+        this.slowThresholdMicros = properties.slowThreshold().toNanos() / 1_000;
+        // Bounded and expiring, local roots that never finish must not leak entries
+        this.droppedTraces = Caffeine.newBuilder()
+            .maximumSize(properties.maxTrackedTraces())
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause != Cause.FINISHED) {
+            return true;
+        }
+        long localRootId = context.localRootId();
+        boolean notable = span.error() != null
+            || span.tag("error") != null
+            || span.finishTimestamp() - span.startTimestamp() >= slowThresholdMicros;
+
+        if (span.tag(CacheHitSampler.DROP_TAG) != null && !notable) {
+            if (!context.isLocalRoot()) {
+                droppedTraces.put(localRootId, Boolean.TRUE);
+            }
+            return false;
+        }
+        if (context.isLocalRoot()) {
+            return droppedTraces.asMap().remove(localRootId) == null || notable;
+        }
+        return notable || droppedTraces.getIfPresent(localRootId) == null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.varunu28.thunderingherd.tracing;
+
+import com.varunu28.thunderingherd.config.TraceSamplingProperties;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides per request whether the cache hit fast path gets traced. Requests that are not sampled skip building
+ * their cache spans altogether, and if they do turn out to be hits their trace is marked so that
+ * {@link AdaptiveSamplingSpanHandler} can drop it before it is reported.
+ */
+@Component
+public class CacheHitSampler {
+
+    static final String DROP_TAG = "sampling.drop";
+
+    private final Tracer tracer;
+    private final boolean adaptive;
+    private final double cacheHitRate;
+
+    public CacheHitSampler(Tracer tracer, TraceSamplingProperties properties) {
+        this.tracer = tracer;
+        this.adaptive = properties.adaptive();
+        this.cacheHitRate = properties.cacheHitRate();
+    }
+
+    public boolean sampleCacheHit() {
+        return !adaptive || ThreadLocalRandom.current().nextDouble() < cacheHitRate;
+    }
+
+    public void dropCacheHitTrace() {
+        Span currentSpan = tracer.currentSpan();
+        if (currentSpan != null) {
+            currentSpan.tag(DROP_TAG, "cache-hit");
+        }
+    }
+}
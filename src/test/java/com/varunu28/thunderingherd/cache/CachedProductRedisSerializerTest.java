@@ -0,0 +1,126 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.varunu28.thunderingherd.config.RedisCacheProperties.Codec;
+import com.varunu28.thunderingherd.config.RedisCacheProperties.Codec.Format;
+import com.varunu28.thunderingherd.model.Product;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachedProductRedisSerializerTest {
+
+    private final CachedProductRedisSerializer jsonSerializer =
+        new CachedProductRedisSerializer(new Codec(Format.JSON, 512));
+    private final CachedProductRedisSerializer binarySerializer =
+        new CachedProductRedisSerializer(new Codec(Format.BINARY, 512));
+
+    @Test
+    void binaryEntryShouldRoundTrip() {
+        CachedProduct entry = entry(product("Test Description"));
+
+        byte[] bytes = binarySerializer.serialize(entry);
+
+        assertThat(bytes[0]).isEqualTo(BinaryCachedProductCodec.MAGIC);
+        assertSameEntry(binarySerializer.deserialize(bytes), entry);
+    }
+
+    @Test
+    void binaryEntryShouldBeSmallerThanJson() {
+        CachedProduct entry = entry(product("Test Description"));
+
+        assertThat(binarySerializer.serialize(entry).length).isLessThan(jsonSerializer.serialize(entry).length);
+    }
+
+    @Test
+    void longDescriptionShouldBeCompressed() {
+        String description = "A long and repetitive description. ".repeat(100);
+        CachedProduct entry = entry(product(description));
+
+        byte[] bytes = binarySerializer.serialize(entry);
+
+        assertThat(bytes.length).isLessThan(description.length());
+        assertSameEntry(binarySerializer.deserialize(bytes), entry);
+    }
+
+    @Test
+    void nullFieldsShouldRoundTrip() {
+        CachedProduct entry = entry(new Product(UUID.randomUUID(), null, null, null, null));
+
+        assertSameEntry(binarySerializer.deserialize(binarySerializer.serialize(entry)), entry);
+    }
+
+    @Test
+    void tombstoneShouldRoundTrip() {
+        CachedProduct entry = new CachedProduct(null, 0, 2_000, 2_000);
+
+        CachedProduct decoded = binarySerializer.deserialize(binarySerializer.serialize(entry));
+
+        assertThat(decoded.isTombstone()).isTrue();
+        assertThat(decoded.expiresAt()).isEqualTo(2_000);
+    }
+
+    @Test
+    void eachFormatShouldReadEntriesWrittenByTheOther() {
+        CachedProduct entry = entry(product("Test Description"));
+
+        assertSameEntry(binarySerializer.deserialize(jsonSerializer.serialize(entry)), entry);
+        assertSameEntry(jsonSerializer.deserialize(binarySerializer.serialize(entry)), entry);
+    }
+
+    @Test
+    void entryWrittenBeforeRowVersionsShouldStillBeReadable() {
+        CachedProduct entry = entry(product("Test Description"));
+        byte[] bytes = binarySerializer.serialize(entry);
+        // Version 1 is the same layout without the trailing row version and update time
+        byte[] versionOneBytes = Arrays.copyOf(bytes, bytes.length - 2 * Long.BYTES);
+        versionOneBytes[1] = BinaryCachedProductCodec.VERSION_1;
+
+        CachedProduct decoded = binarySerializer.deserialize(versionOneBytes);
+
+        assertThat(decoded.product().getVersion()).isZero();
+        assertThat(decoded.product().getPrice()).isEqualTo(entry.product().getPrice());
+    }
+
+    @Test
+    void entryWrittenBeforeUpdateTimesShouldHaveNone() {
+        CachedProduct entry = entry(product("Test Description"));
+        byte[] bytes = binarySerializer.serialize(entry);
+        byte[] versionTwoBytes = Arrays.copyOf(bytes, bytes.length - Long.BYTES);
+        versionTwoBytes[1] = BinaryCachedProductCodec.VERSION_2;
+
+        CachedProduct decoded = binarySerializer.deserialize(versionTwoBytes);
+
+        assertThat(decoded.product().getVersion()).isEqualTo(7);
+        assertThat(decoded.product().getUpdatedAt()).isNull();
+    }
+
+    @Test
+    void priceWiderThanALongShouldBeRejected() {
+        Product product = new Product(UUID.randomUUID(), "Name", null, new BigDecimal("1e30").setScale(2), null);
+
+        assertThatThrownBy(() -> binarySerializer.serialize(entry(product)))
+            .isInstanceOf(SerializationException.class);
+    }
+
+    private static Product product(String description) {
+        return new Product(UUID.randomUUID(), "Test Product", description, new BigDecimal("19.99"),
+            new Date(1_700_000_000_000L), new Date(1_700_000_060_000L), 7);
+    }
+
+    private static CachedProduct entry(Product product) {
+        return new CachedProduct(product, 42, 1_000, 2_000);
+    }
+
+    private static void assertSameEntry(CachedProduct actual, CachedProduct expected) {
+        assertThat(actual.computeMillis()).isEqualTo(expected.computeMillis());
+        assertThat(actual.softExpiresAt()).isEqualTo(expected.softExpiresAt());
+        assertThat(actual.expiresAt()).isEqualTo(expected.expiresAt());
+        assertThat(actual.product()).usingRecursiveComparison().isEqualTo(expected.product());
+    }
+}
@@ -0,0 +1,55 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.varunu28.thunderingherd.model.Product;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedProductTest {
+
+    private final Product product = new Product("Test Product", "Test Description", BigDecimal.TEN);
+
+    @Test
+    void freshEntryShouldNotBeRecomputedEarly() {
+        long now = 1_000_000;
+        CachedProduct entry = new CachedProduct(product, 50, now + 600_000, now + 600_000);
+
+        assertThat(entry.shouldRecomputeEarly(now, 1.0, 0.5)).isFalse();
+    }
+
+    @Test
+    void entryCloseToExpiryShouldBeRecomputedEarly() {
+        long now = 1_000_000;
+        CachedProduct entry = new CachedProduct(product, 50, now + 10, now + 10);
+
+        // -50 * ln(0.5) ~= 34.7ms of head start, which reaches past the expiry
+        assertThat(entry.shouldRecomputeEarly(now, 1.0, 0.5)).isTrue();
+    }
+
+    @Test
+    void higherBetaShouldRecomputeEarlier() {
+        long now = 1_000_000;
+        CachedProduct entry = new CachedProduct(product, 50, now + 100, now + 100);
+
+        assertThat(entry.shouldRecomputeEarly(now, 1.0, 0.5)).isFalse();
+        assertThat(entry.shouldRecomputeEarly(now, 4.0, 0.5)).isTrue();
+    }
+
+    @Test
+    void expiredEntryShouldAlwaysBeRecomputed() {
+        long now = 1_000_000;
+        CachedProduct entry = new CachedProduct(product, 0, now, now);
+
+        assertThat(entry.shouldRecomputeEarly(now, 1.0, 1.0)).isTrue();
+    }
+
+    @Test
+    void entryPastSoftTtlShouldBeStale() {
+        long now = 1_000_000;
+        CachedProduct entry = new CachedProduct(product, 50, now - 1, now + 600_000);
+
+        assertThat(entry.isStale(now)).isTrue();
+        assertThat(entry.shouldRecomputeEarly(now, 1.0, 0.5)).isFalse();
+    }
+}
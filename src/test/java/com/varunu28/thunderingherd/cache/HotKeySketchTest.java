@@ -0,0 +1,60 @@
+package com.varunu28.thunderingherd.cache;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotKeySketchTest {
+
+    @Test
+    void heavyHittersShouldLeadTheTopK() {
+        HotKeySketch sketch = new HotKeySketch(1024, 4, 3);
+        UUID hottest = UUID.randomUUID();
+        UUID hot = UUID.randomUUID();
+        for (int i = 0; i < 1000; i++) {
+            sketch.record(UUID.randomUUID());
+            sketch.record(hottest);
+            sketch.record(hottest);
+            if (i % 2 == 0) {
+                sketch.record(hot);
+            }
+        }
+
+        assertThat(sketch.topK()).hasSizeLessThanOrEqualTo(3);
+        assertThat(sketch.topK().get(0).id()).isEqualTo(hottest);
+        assertThat(sketch.topK().get(1).id()).isEqualTo(hot);
+    }
+
+    @Test
+    void estimateShouldNeverUndercount() {
+        HotKeySketch sketch = new HotKeySketch(16, 2, 4);
+        UUID id = UUID.randomUUID();
+        for (int i = 0; i < 100; i++) {
+            sketch.record(UUID.randomUUID());
+        }
+
+        long estimate = 0;
+        for (int i = 0; i < 10; i++) {
+            estimate = sketch.record(id);
+        }
+
+        assertThat(estimate).isGreaterThanOrEqualTo(10);
+    }
+
+    @Test
+    void decayShouldHalveEstimatesAndDropColdKeys() {
+        HotKeySketch sketch = new HotKeySketch(1024, 4, 4);
+        UUID hot = UUID.randomUUID();
+        UUID cold = UUID.randomUUID();
+        for (int i = 0; i < 8; i++) {
+            sketch.record(hot);
+        }
+        sketch.record(cold);
+
+        sketch.decay();
+
+        assertThat(sketch.topK()).containsExactly(new HotKeySketch.HotKey(hot, 4));
+        assertThat(sketch.record(hot)).isEqualTo(5);
+    }
+}
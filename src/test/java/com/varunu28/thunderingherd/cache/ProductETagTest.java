@@ -0,0 +1,34 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.varunu28.thunderingherd.model.Product;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductETagTest {
+
+    private final UUID id = UUID.randomUUID();
+    private final Date launchedAt = new Date();
+
+    @Test
+    void equalContentShouldGetTheSameStrongTag() {
+        String etag = ProductETag.of(new Product(id, "Lamp", "Desk lamp", new BigDecimal("12.5"), launchedAt));
+
+        assertThat(etag).matches("\"[0-9a-f]{24}\"");
+        assertThat(ProductETag.of(new Product(id, "Lamp", "Desk lamp", new BigDecimal("12.50"), launchedAt)))
+            .isEqualTo(etag);
+    }
+
+    @Test
+    void changedContentShouldGetAnotherTag() {
+        Product product = new Product(id, "Lamp", "Desk lamp", new BigDecimal("12.50"), launchedAt);
+
+        assertThat(ProductETag.of(new Product(id, "Lamp", "Floor lamp", new BigDecimal("12.50"), launchedAt)))
+            .isNotEqualTo(ProductETag.of(product));
+        assertThat(ProductETag.of(new Product(id, "Lamp", "Desk lamp", new BigDecimal("13.00"), launchedAt)))
+            .isNotEqualTo(ProductETag.of(product));
+    }
+}
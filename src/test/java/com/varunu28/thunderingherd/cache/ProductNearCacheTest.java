@@ -0,0 +1,125 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.varunu28.thunderingherd.config.NearCacheProperties;
+import com.varunu28.thunderingherd.config.RedisCircuitBreakerProperties;
+import com.varunu28.thunderingherd.model.Product;
+import com.varunu28.thunderingherd.resilience.RedisCircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductNearCacheTest {
+
+    private static final String CHANNEL = "product-cache-invalidation";
+
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    private final RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker(
+        new RedisCircuitBreakerProperties(true, Duration.ofMillis(100), 0.5, 10, 4, Duration.ofSeconds(5), 2,
+            new RedisCircuitBreakerProperties.Fallback(100, Duration.ofSeconds(30))),
+        new SimpleMeterRegistry());
+
+    @Test
+    void putThenGetShouldReturnProduct() {
+        ProductNearCache nearCache = new ProductNearCache(properties(true), stringRedisTemplate, circuitBreaker);
+        UUID productId = UUID.randomUUID();
+        Product product = new Product(productId, "Test Product", "Test Description", BigDecimal.TEN);
+
+        nearCache.put(productId, product);
+
+        assertThat(nearCache.getIfPresent(productId)).isSameAs(product);
+    }
+
+    @Test
+    void disabledCacheShouldNeitherStoreNorBroadcast() {
+        ProductNearCache nearCache = new ProductNearCache(properties(false), stringRedisTemplate, circuitBreaker);
+        UUID productId = UUID.randomUUID();
+
+        nearCache.put(productId, new Product(productId, "Test Product", "Test Description", BigDecimal.TEN));
+        nearCache.broadcastInvalidation(productId);
+
+        assertThat(nearCache.getIfPresent(productId)).isNull();
+        verify(stringRedisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void invalidationFromAnotherNodeShouldEvictEntry() {
+        ProductNearCache nearCache = new ProductNearCache(properties(true), stringRedisTemplate, circuitBreaker);
+        UUID productId = UUID.randomUUID();
+        nearCache.put(productId, new Product(productId, "Test Product", "Test Description", BigDecimal.TEN));
+
+        nearCache.onMessage(message("other-node|" + productId), null);
+
+        assertThat(nearCache.getIfPresent(productId)).isNull();
+    }
+
+    @Test
+    void malformedInvalidationShouldBeIgnored() {
+        ProductNearCache nearCache = new ProductNearCache(properties(true), stringRedisTemplate, circuitBreaker);
+        UUID productId = UUID.randomUUID();
+        Product product = new Product(productId, "Test Product", "Test Description", BigDecimal.TEN);
+        nearCache.put(productId, product);
+
+        assertThatCode(() -> nearCache.onMessage(message("other-node|not-a-uuid"), null)).doesNotThrowAnyException();
+        assertThat(nearCache.getIfPresent(productId)).isSameAs(product);
+    }
+
+    @Test
+    void ownInvalidationShouldBeIgnored() {
+        ProductNearCache nearCache = new ProductNearCache(properties(true), stringRedisTemplate, circuitBreaker);
+        UUID productId = UUID.randomUUID();
+        Product product = new Product(productId, "Test Product", "Test Description", BigDecimal.TEN);
+        nearCache.put(productId, product);
+
+        nearCache.broadcastInvalidation(productId);
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(CHANNEL), published.capture());
+        nearCache.onMessage(message(published.getValue()), null);
+
+        assertThat(nearCache.getIfPresent(productId)).isSameAs(product);
+    }
+
+    @Test
+    void failedBroadcastShouldNotPropagate() {
+        ProductNearCache nearCache = new ProductNearCache(properties(true), stringRedisTemplate, circuitBreaker);
+        when(stringRedisTemplate.convertAndSend(anyString(), anyString()))
+            .thenThrow(new RedisConnectionFailureException("Redis is down"));
+
+        assertThatCode(() -> nearCache.broadcastInvalidation(UUID.randomUUID())).doesNotThrowAnyException();
+    }
+
+    @Test
+    void invalidationFromAnotherNodeShouldUnpinEntry() {
+        ProductNearCache nearCache = new ProductNearCache(properties(true), stringRedisTemplate, circuitBreaker);
+        UUID productId = UUID.randomUUID();
+        nearCache.pin(productId, new Product(productId, "Test Product", "Test Description", BigDecimal.TEN));
+
+        nearCache.onMessage(message("other-node|" + productId), null);
+
+        assertThat(nearCache.isPinned(productId)).isFalse();
+        assertThat(nearCache.getIfPresent(productId)).isNull();
+    }
+
+    private static NearCacheProperties properties(boolean enabled) {
+        return new NearCacheProperties(enabled, 100, Duration.ofMinutes(1), CHANNEL);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
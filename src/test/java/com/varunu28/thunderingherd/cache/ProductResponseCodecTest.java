@@ -0,0 +1,51 @@
+package com.varunu28.thunderingherd.cache;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.varunu28.thunderingherd.config.ResponseCacheProperties;
+import com.varunu28.thunderingherd.dto.GetProductDto;
+import com.varunu28.thunderingherd.model.Product;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductResponseCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProductResponseCodec codec =
+        new ProductResponseCodec(objectMapper, new ResponseCacheProperties(true, "1"));
+
+    @Test
+    void encodedResponseShouldDecodeToTheSameBodyAndValidators() throws Exception {
+        Product product = new Product(
+            UUID.randomUUID(), "Lamp", "Desk lamp", new BigDecimal("12.50"), new Date(1_000), new Date(2_000), 0);
+
+        SerializedProductResponse decoded = codec.decode(codec.encode(codec.render(product)));
+
+        assertThat(decoded.etag()).isEqualTo(ProductETag.of(product));
+        assertThat(decoded.lastModified()).isEqualTo(2_000);
+        assertThat(new String(decoded.body(), StandardCharsets.UTF_8))
+            .isEqualTo(objectMapper.writeValueAsString(GetProductDto.from(product)));
+    }
+
+    @Test
+    void fingerprintShouldChangeWithTheSchemaAndTheVersion() {
+        String fingerprint = ProductResponseCodec.fingerprint(GetProductDto.class, "1");
+
+        assertThat(ProductResponseCodec.fingerprint(GetProductDto.class, "1")).isEqualTo(fingerprint);
+        assertThat(ProductResponseCodec.fingerprint(GetProductDto.class, "2")).isNotEqualTo(fingerprint);
+        assertThat(ProductResponseCodec.fingerprint(RenamedPrice.class, "1"))
+            .isNotEqualTo(ProductResponseCodec.fingerprint(Price.class, "1"));
+        assertThat(codec.key("product:1")).isEqualTo("product:1:response:" + fingerprint);
+    }
+
+    private record Price(@JsonProperty("price") Double price) {
+    }
+
+    private record RenamedPrice(@JsonProperty("amount") Double price) {
+    }
+}
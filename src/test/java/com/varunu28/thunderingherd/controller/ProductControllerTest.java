@@ -1,28 +1,57 @@
 package com.varunu28.thunderingherd.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.varunu28.thunderingherd.cache.ProductETag;
+import com.varunu28.thunderingherd.config.HttpCachingProperties;
+import com.varunu28.thunderingherd.config.ResponseCacheProperties;
+import com.varunu28.thunderingherd.dto.BatchGetProductsDto;
+import com.varunu28.thunderingherd.dto.BulkCreateProductsResultDto;
 import com.varunu28.thunderingherd.dto.CreateProductDto;
+import com.varunu28.thunderingherd.dto.UpdateProductDto;
+import com.varunu28.thunderingherd.exception.InvalidPageRequestException;
 import com.varunu28.thunderingherd.exception.ProductNotFoundException;
+import com.varunu28.thunderingherd.exception.ServiceOverloadedException;
 import com.varunu28.thunderingherd.model.Product;
+import com.varunu28.thunderingherd.service.ConditionalProduct;
+import com.varunu28.thunderingherd.service.ProductIngestService;
+import com.varunu28.thunderingherd.service.ProductListingService;
 import com.varunu28.thunderingherd.service.ProductService;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Predicate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ProductController.class)
+@Import(ProductResponses.class)
+@EnableConfigurationProperties({HttpCachingProperties.class, ResponseCacheProperties.class})
 class ProductControllerTest {
 
     @Autowired
@@ -31,6 +60,12 @@ class ProductControllerTest {
     @MockitoBean
     private ProductService productService;
 
+    @MockitoBean
+    private ProductIngestService productIngestService;
+
+    @MockitoBean
+    private ProductListingService productListingService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -47,6 +82,18 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$").value(productId.toString()));
     }
 
+    @Test
+    void createProductsShouldReturnCounts() throws Exception {
+        when(productIngestService.ingest(any())).thenReturn(new BulkCreateProductsResultDto(2, 1));
+
+        mockMvc.perform(post("/api/v1/products/bulk")
+                        .contentType(APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(1));
+    }
+
     @Test
     void getProductShouldReturnProduct() throws Exception {
         UUID productId = UUID.randomUUID();
@@ -61,6 +108,37 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.price").value(10.0));
     }
 
+    @Test
+    void getProductShouldSendValidatorsAndCachingHeaders() throws Exception {
+        UUID productId = UUID.randomUUID();
+        Product product = new Product(productId, "Test Product", "Test Description", BigDecimal.TEN);
+        when(productService.getProductById(productId)).thenReturn(product);
+
+        mockMvc.perform(get("/api/v1/products/{id}", productId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ProductETag.of(product)))
+                .andExpect(header().string("Cache-Control", "max-age=0, public, s-maxage=10"))
+                .andExpect(header().exists("Last-Modified"));
+    }
+
+    @Test
+    void getProductShouldReturnNotModifiedWhenETagMatches() throws Exception {
+        UUID productId = UUID.randomUUID();
+        String etag = "\"abc\"";
+        when(productService.getProductUnlessMatched(eq(productId), any()))
+            .thenAnswer(invocation -> {
+                Predicate<String> etagMatches = invocation.getArgument(1);
+                return etagMatches.test(etag)
+                    ? ConditionalProduct.notModified(etag)
+                    : new ConditionalProduct(new Product(productId, "Test Product", "", BigDecimal.TEN), etag);
+            });
+
+        mockMvc.perform(get("/api/v1/products/{id}", productId).header("If-None-Match", "\"xyz\", W/\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getProductShouldReturnNotFoundWhenProductDoesNotExist() throws Exception {
         UUID productId = UUID.randomUUID();
@@ -70,6 +148,86 @@ class ProductControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getProductShouldReturnServiceUnavailableWhenOverloaded() throws Exception {
+        UUID productId = UUID.randomUUID();
+        when(productService.getProductById(productId))
+            .thenThrow(new ServiceOverloadedException("Too many concurrent product loads", Duration.ofSeconds(2)));
+
+        mockMvc.perform(get("/api/v1/products/{id}", productId))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    @Test
+    void updateProductShouldReturnUpdatedProduct() throws Exception {
+        UUID productId = UUID.randomUUID();
+        Product product = new Product(productId, "New Name", "New Description", new BigDecimal("12.50"));
+        when(productService.updateProduct(productId, "New Name", "New Description", 12.5)).thenReturn(product);
+
+        mockMvc.perform(put("/api/v1/products/{id}", productId)
+                        .contentType(APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                            new UpdateProductDto("New Name", "New Description", 12.5))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ProductETag.of(product)))
+                .andExpect(jsonPath("$.name").value("New Name"))
+                .andExpect(jsonPath("$.price").value(12.5));
+    }
+
+    @Test
+    void updateProductShouldReturnConflictOnConcurrentModification() throws Exception {
+        UUID productId = UUID.randomUUID();
+        when(productService.updateProduct(eq(productId), anyString(), anyString(), anyDouble()))
+            .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, productId));
+
+        mockMvc.perform(put("/api/v1/products/{id}", productId)
+                        .contentType(APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                            new UpdateProductDto("New Name", "New Description", 12.5))))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void listProductsShouldReturnTheRenderedPage() throws Exception {
+        byte[] page = "{\"products\":[],\"next_cursor\":null}".getBytes(StandardCharsets.UTF_8);
+        when(productListingService.listProducts("abc", 10)).thenReturn(page);
+
+        mockMvc.perform(get("/api/v1/products").param("cursor", "abc").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_JSON))
+                .andExpect(content().bytes(page));
+    }
+
+    @Test
+    void listProductsShouldReturnBadRequestForInvalidCursors() throws Exception {
+        when(productListingService.listProducts("abc", null))
+            .thenThrow(new InvalidPageRequestException("Invalid cursor 'abc'"));
+
+        mockMvc.perform(get("/api/v1/products").param("cursor", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid cursor 'abc'"));
+    }
+
+    @Test
+    void deleteProductShouldReturnNoContent() throws Exception {
+        UUID productId = UUID.randomUUID();
+
+        mockMvc.perform(delete("/api/v1/products/{id}", productId))
+                .andExpect(status().isNoContent());
+
+        verify(productService).deleteProduct(productId);
+    }
+
+    @Test
+    void deleteProductShouldReturnNotFoundWhenProductDoesNotExist() throws Exception {
+        UUID productId = UUID.randomUUID();
+        doThrow(new ProductNotFoundException(productId)).when(productService).deleteProduct(productId);
+
+        mockMvc.perform(delete("/api/v1/products/{id}", productId))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void createProductShouldReturnBadRequestForInvalidDto() throws Exception {
         CreateProductDto invalidDto = new CreateProductDto("", "desc", 9.0);
@@ -83,4 +241,28 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.errors.description").exists())
                 .andExpect(jsonPath("$.errors.price").exists());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getProductsShouldReturnFoundProductsKeyedById() throws Exception {
+        UUID productId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        Product product = new Product(productId, "Test Product", "Test Description", BigDecimal.TEN);
+        when(productService.getProductsByIds(List.of(productId, missingId))).thenReturn(Map.of(productId, product));
+
+        mockMvc.perform(post("/api/v1/products/batch")
+                        .contentType(APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchGetProductsDto(List.of(productId, missingId)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['" + productId + "'].name").value("Test Product"))
+                .andExpect(jsonPath("$['" + missingId + "']").doesNotExist());
+    }
+
+    @Test
+    void getProductsShouldReturnBadRequestForEmptyIds() throws Exception {
+        mockMvc.perform(post("/api/v1/products/batch")
+                        .contentType(APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BatchGetProductsDto(List.of()))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.ids").exists());
+    }
+}
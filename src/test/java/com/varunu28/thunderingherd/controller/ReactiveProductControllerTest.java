@@ -0,0 +1,72 @@
+package com.varunu28.thunderingherd.controller;
+
+import com.varunu28.thunderingherd.config.HttpCachingProperties;
+import com.varunu28.thunderingherd.config.ResponseCacheProperties;
+import com.varunu28.thunderingherd.dto.CreateProductDto;
+import com.varunu28.thunderingherd.exception.ProductNotFoundException;
+import com.varunu28.thunderingherd.model.Product;
+import com.varunu28.thunderingherd.service.ReactiveProductService;
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@WebFluxTest(ReactiveProductController.class)
+@Import(ProductResponses.class)
+@EnableConfigurationProperties({HttpCachingProperties.class, ResponseCacheProperties.class})
+@ActiveProfiles("reactive")
+class ReactiveProductControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockitoBean
+    private ReactiveProductService productService;
+
+    @Test
+    void getProductShouldReturnProduct() {
+        UUID productId = UUID.randomUUID();
+        Product product = new Product(productId, "Test Product", "Test Description", BigDecimal.TEN);
+        when(productService.getProductById(productId)).thenReturn(Mono.just(product));
+
+        webTestClient.get().uri("/api/v1/products/{id}", productId)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.name").isEqualTo("Test Product")
+            .jsonPath("$.price").isEqualTo(10);
+    }
+
+    @Test
+    void getProductShouldReturnNotFoundWhenProductDoesNotExist() {
+        UUID productId = UUID.randomUUID();
+        when(productService.getProductById(productId))
+            .thenReturn(Mono.error(new ProductNotFoundException(productId)));
+
+        webTestClient.get().uri("/api/v1/products/{id}", productId)
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    @Test
+    void createProductShouldRejectInvalidProduct() {
+        webTestClient.post().uri("/api/v1/products")
+            .contentType(APPLICATION_JSON)
+            .bodyValue(new CreateProductDto("", "Test Description", 5.0))
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.message").isEqualTo("Validation failed")
+            .jsonPath("$.errors.price").exists();
+    }
+}
@@ -0,0 +1,46 @@
+package com.varunu28.thunderingherd.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class InstrumentedExecutorServiceTest {
+
+    @Test
+    void shouldReportQueuedAndActiveTasks() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InstrumentedExecutorService executor = new InstrumentedExecutorService(
+            new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(10)),
+            "test.executor",
+            meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> awaitQuietly(release));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> executor.activeTasks() == 1);
+        assertThat(executor.queuedTasks()).isEqualTo(1);
+        assertThat(meterRegistry.get("test.executor.queued").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("test.executor.active").gauge().value()).isEqualTo(1.0);
+
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.activeTasks()).isZero();
+        assertThat(executor.queuedTasks()).isZero();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
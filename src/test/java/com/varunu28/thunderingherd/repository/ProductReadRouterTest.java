@@ -0,0 +1,90 @@
+package com.varunu28.thunderingherd.repository;
+
+import com.varunu28.thunderingherd.config.ReplicaProperties;
+import com.varunu28.thunderingherd.model.Product;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductReadRouterTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ReplicaDataSources replicas = mock(ReplicaDataSources.class);
+    private final ProductReadRouter readRouter = new ProductReadRouter(
+        productRepository,
+        replicas,
+        new ReplicaProperties(true, List.of(), ReplicaProperties.Selection.ROUND_ROBIN, Duration.ofMinutes(1), 100,
+            Duration.ofSeconds(2), Duration.ofSeconds(1)));
+
+    @BeforeEach
+    void setUp() {
+        when(replicas.isEnabled()).thenReturn(true);
+        when(replicas.read(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        when(replicas.readPrimary(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+    }
+
+    @Test
+    void readsShouldGoToTheReplicas() {
+        Product product = product();
+        when(productRepository.findById(product.getId())).thenReturn(Optional.of(product));
+
+        assertThat(readRouter.findById(product.getId())).isSameAs(product);
+        verify(replicas).read(any());
+        verify(replicas, never()).readPrimary(any());
+    }
+
+    @Test
+    void recentWritesShouldBeReadFromThePrimary() {
+        Product product = product();
+        when(productRepository.findById(product.getId())).thenReturn(Optional.of(product));
+        readRouter.recordWrite(product.getId());
+
+        assertThat(readRouter.findById(product.getId())).isSameAs(product);
+        verify(replicas, never()).read(any());
+        verify(replicas).readPrimary(any());
+    }
+
+    @Test
+    void productsMissingOnTheReplicaShouldBeConfirmedOnThePrimary() {
+        UUID id = UUID.randomUUID();
+        when(productRepository.findById(id)).thenReturn(Optional.empty());
+
+        assertThat(readRouter.findById(id)).isNull();
+        verify(replicas).read(any());
+        verify(replicas).readPrimary(any());
+        verify(productRepository, times(2)).findById(id);
+    }
+
+    @Test
+    void batchesShouldSplitRecentWritesAndMissesOffToThePrimary() {
+        Product replicated = product();
+        Product recentlyWritten = product();
+        UUID missing = UUID.randomUUID();
+        readRouter.recordWrite(recentlyWritten.getId());
+        when(productRepository.findAllById(List.of(replicated.getId(), missing))).thenReturn(List.of(replicated));
+        when(productRepository.findAllById(List.of(recentlyWritten.getId(), missing)))
+            .thenReturn(List.of(recentlyWritten));
+
+        Iterable<Product> products =
+            readRouter.findAllById(List.of(replicated.getId(), recentlyWritten.getId(), missing));
+
+        assertThat(products).containsExactlyInAnyOrder(replicated, recentlyWritten);
+    }
+
+    private static Product product() {
+        return new Product(UUID.randomUUID(), "Test Product", "Test Description", BigDecimal.TEN);
+    }
+}
@@ -0,0 +1,97 @@
+package com.varunu28.thunderingherd.resilience;
+
+import com.varunu28.thunderingherd.config.LoadLimitProperties;
+import com.varunu28.thunderingherd.config.LoadLimitProperties.AdaptiveLimit;
+import com.varunu28.thunderingherd.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AimdConcurrencyLimiterTest {
+
+    @Test
+    void queriesOverTheLimitShouldBeRejected() throws InterruptedException {
+        AimdConcurrencyLimiter limiter = newLimiter(2, Duration.ofSeconds(10));
+        CountDownLatch running = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < 2; i++) {
+            executor.submit(() -> limiter.execute(() -> {
+                running.countDown();
+                await(release);
+                return null;
+            }));
+        }
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> limiter.execute(() -> "rejected"))
+            .isInstanceOf(ServiceOverloadedException.class);
+
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.execute(() -> "accepted")).isEqualTo("accepted");
+    }
+
+    @Test
+    void slowQueriesShouldShrinkTheLimit() {
+        AimdConcurrencyLimiter limiter = newLimiter(10, Duration.ZERO);
+
+        limiter.execute(() -> sleep(5));
+
+        assertThat(limiter.limit()).isEqualTo(9);
+    }
+
+    @Test
+    void failedQueriesShouldShrinkTheLimit() {
+        AimdConcurrencyLimiter limiter = newLimiter(10, Duration.ofSeconds(10));
+
+        assertThatThrownBy(() -> limiter.execute(() -> {
+            throw new IllegalStateException("query failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(limiter.limit()).isEqualTo(9);
+    }
+
+    @Test
+    void fastQueriesShouldGrowAUtilisedLimit() {
+        AimdConcurrencyLimiter limiter = newLimiter(1, Duration.ofSeconds(10));
+
+        limiter.execute(() -> "fast");
+
+        assertThat(limiter.limit()).isEqualTo(2);
+    }
+
+    private static AimdConcurrencyLimiter newLimiter(int initialLimit, Duration latencyThreshold) {
+        LoadLimitProperties properties = new LoadLimitProperties(
+            Duration.ofSeconds(2),
+            Duration.ofSeconds(1),
+            10_000,
+            new AdaptiveLimit(true, initialLimit, 1, 100, latencyThreshold, 0.9));
+        return new AimdConcurrencyLimiter(properties, new SimpleMeterRegistry());
+    }
+
+    private static Void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.varunu28.thunderingherd.resilience;
+
+import com.varunu28.thunderingherd.config.RedisCircuitBreakerProperties;
+import com.varunu28.thunderingherd.config.RedisCircuitBreakerProperties.Fallback;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RedisCircuitBreakerTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final RedisCircuitBreaker circuitBreaker = new RedisCircuitBreaker(
+        new RedisCircuitBreakerProperties(true, Duration.ofMillis(100), 0.5, 10, 4, Duration.ofSeconds(5), 2,
+            new Fallback(100, Duration.ofSeconds(30))),
+        new SimpleMeterRegistry(),
+        nanoTime::get);
+
+    @Test
+    void circuitShouldOpenOnceTheFailureRateIsReachedAndRejectCallsWithoutRunningThem() {
+        succeed();
+        fail();
+        succeed();
+        assertThat(circuitBreaker.state()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+
+        fail();
+
+        assertThat(circuitBreaker.state()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.isCallPermitted()).isFalse();
+        assertThatThrownBy(() -> circuitBreaker.execute(() -> {
+            throw new AssertionError("must not run while the circuit is open");
+        })).isInstanceOf(CallNotPermittedException.class);
+    }
+
+    @Test
+    void successfulProbesShouldCloseTheCircuit() {
+        openCircuit();
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThat(circuitBreaker.isCallPermitted()).isTrue();
+
+        succeed();
+        assertThat(circuitBreaker.state()).isEqualTo(RedisCircuitBreaker.State.HALF_OPEN);
+        succeed();
+
+        assertThat(circuitBreaker.state()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.failureRate()).isZero();
+    }
+
+    @Test
+    void failedProbeShouldOpenTheCircuitAgain() {
+        openCircuit();
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        fail();
+
+        assertThat(circuitBreaker.state()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+        assertThatThrownBy(this::succeed).isInstanceOf(CallNotPermittedException.class);
+    }
+
+    @Test
+    void callsShouldNotBePermittedOnceEveryProbeSlotIsTaken() {
+        openCircuit();
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        boolean permittedDuringProbes = circuitBreaker.execute(() ->
+            circuitBreaker.execute(circuitBreaker::isCallPermitted));
+
+        assertThat(permittedDuringProbes).isFalse();
+        assertThat(circuitBreaker.state()).isEqualTo(RedisCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void probeThrowingAnErrorShouldOpenTheCircuitAgain() {
+        openCircuit();
+        nanoTime.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        assertThatThrownBy(() -> circuitBreaker.execute(() -> {
+            throw new OutOfMemoryError("Java heap space");
+        })).isInstanceOf(OutOfMemoryError.class);
+
+        assertThat(circuitBreaker.state()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        assertThat(circuitBreaker.state()).isEqualTo(RedisCircuitBreaker.State.OPEN);
+    }
+
+    private void succeed() {
+        circuitBreaker.execute(() -> "OK");
+    }
+
+    private void fail() {
+        assertThatThrownBy(() -> circuitBreaker.execute(() -> {
+            throw new RedisConnectionFailureException("Redis is down");
+        })).isInstanceOf(RedisConnectionFailureException.class);
+    }
+}
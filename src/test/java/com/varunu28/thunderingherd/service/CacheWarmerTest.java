@@ -0,0 +1,106 @@
+package com.varunu28.thunderingherd.service;
+
+import com.varunu28.thunderingherd.cache.HotKeyTracker;
+import com.varunu28.thunderingherd.config.HotKeyProperties;
+import com.varunu28.thunderingherd.config.WarmUpProperties;
+import com.varunu28.thunderingherd.repository.ProductRepository;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheWarmerTest {
+
+    private final ProductService productService = mock(ProductService.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void warmUpShouldLoadSnapshotInBatches() throws Exception {
+        List<UUID> ids = IntStream.range(0, 5).mapToObj(i -> UUID.randomUUID()).toList();
+        Path snapshotFile = directory.resolve("hot-keys.snapshot");
+        Files.write(snapshotFile, ids.stream().map(UUID::toString).toList());
+        when(productService.getProductsByIds(anyList())).thenReturn(Map.of());
+
+        newWarmer(snapshotFile, newTracker(false)).warmUp();
+
+        verify(productService).getProductsByIds(ids.subList(0, 2));
+        verify(productService).getProductsByIds(ids.subList(2, 4));
+        verify(productService).getProductsByIds(ids.subList(4, 5));
+        verify(productRepository, never()).findRecentlyLaunchedIds(any());
+    }
+
+    @Test
+    void warmUpShouldFallBackToRecentlyLaunchedProducts() {
+        List<UUID> ids = List.of(UUID.randomUUID());
+        when(productRepository.findRecentlyLaunchedIds(any(Pageable.class))).thenReturn(ids);
+        when(productService.getProductsByIds(anyList())).thenReturn(Map.of());
+
+        newWarmer(directory.resolve("missing.snapshot"), newTracker(false)).warmUp();
+
+        verify(productService).getProductsByIds(ids);
+    }
+
+    @Test
+    void snapshotShouldContainTheTopKeys() throws Exception {
+        HotKeyTracker hotKeyTracker = newTracker(true);
+        UUID hot = UUID.randomUUID();
+        hotKeyTracker.record(hot);
+        Path snapshotFile = directory.resolve("hot-keys.snapshot");
+
+        newWarmer(snapshotFile, hotKeyTracker).persistSnapshot();
+
+        assertThat(Files.readAllLines(snapshotFile)).containsExactly(hot.toString());
+    }
+
+    @Test
+    void snapshotsShouldBePersistedWhileWarmUpIsDisabled() throws Exception {
+        HotKeyTracker hotKeyTracker = newTracker(true);
+        UUID hot = UUID.randomUUID();
+        hotKeyTracker.record(hot);
+        Path snapshotFile = directory.resolve("hot-keys.snapshot");
+        CacheWarmer warmer = new CacheWarmer(productService, productRepository, hotKeyTracker,
+            new WarmUpProperties(false, snapshotFile, Duration.ofMillis(10), 10, 2, 1000, Duration.ofSeconds(5)));
+
+        try {
+            warmer.run(null);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!Files.exists(snapshotFile) && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            warmer.shutdown();
+        }
+
+        assertThat(Files.readAllLines(snapshotFile)).containsExactly(hot.toString());
+        verify(productService, never()).getProductsByIds(anyList());
+    }
+
+    private CacheWarmer newWarmer(Path snapshotFile, HotKeyTracker hotKeyTracker) {
+        WarmUpProperties properties =
+            new WarmUpProperties(true, snapshotFile, Duration.ofMinutes(1), 10, 2, 1000, Duration.ofSeconds(5));
+        return new CacheWarmer(productService, productRepository, hotKeyTracker, properties);
+    }
+
+    private static HotKeyTracker newTracker(boolean enabled) {
+        return new HotKeyTracker(new HotKeyProperties(
+            enabled, 64, 2, 8, Duration.ofMinutes(1), 1, Duration.ofSeconds(1), Duration.ofSeconds(30)));
+    }
+}
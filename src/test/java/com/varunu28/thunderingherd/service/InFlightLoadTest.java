@@ -0,0 +1,48 @@
+package com.varunu28.thunderingherd.service;
+
+import com.varunu28.thunderingherd.model.Product;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InFlightLoadTest {
+
+    @Test
+    void loadShouldBeCancelledOnceTheLastWaiterLeaves() {
+        InFlightLoad load = new InFlightLoad();
+        assertThat(load.join()).isTrue();
+
+        assertThat(load.leave()).isFalse();
+        assertThat(load.isCancelled()).isFalse();
+
+        assertThat(load.leave()).isTrue();
+        assertThat(load.isCancelled()).isTrue();
+    }
+
+    @Test
+    void abandonedLoadShouldNotBeJoined() {
+        InFlightLoad load = new InFlightLoad();
+        load.leave();
+
+        assertThat(load.join()).isFalse();
+    }
+
+    @Test
+    void completedLoadShouldNotBeCancelledWhenWaitersLeave() {
+        InFlightLoad load = new InFlightLoad();
+        load.result().complete(new Product("Test Product", "Test Description", BigDecimal.TEN));
+
+        assertThat(load.leave()).isFalse();
+        assertThat(load.isCancelled()).isFalse();
+        assertThat(load.finish()).isTrue();
+    }
+
+    @Test
+    void loadShouldBeFinishedOnlyOnce() {
+        InFlightLoad load = new InFlightLoad();
+
+        assertThat(load.leave()).isTrue();
+        assertThat(load.finish()).isFalse();
+    }
+}
@@ -0,0 +1,155 @@
+package com.varunu28.thunderingherd.service;
+
+import com.varunu28.thunderingherd.config.BatchLoaderProperties;
+import com.varunu28.thunderingherd.config.LoadLimitProperties;
+import com.varunu28.thunderingherd.config.LoaderExecutorProperties;
+import com.varunu28.thunderingherd.config.ReplicaProperties;
+import com.varunu28.thunderingherd.exception.ProductNotFoundException;
+import com.varunu28.thunderingherd.metrics.ProductLoadMetrics;
+import com.varunu28.thunderingherd.model.Product;
+import com.varunu28.thunderingherd.repository.ProductReadRouter;
+import com.varunu28.thunderingherd.repository.ProductRepository;
+import com.varunu28.thunderingherd.repository.ReplicaDataSources;
+import com.varunu28.thunderingherd.resilience.AimdConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductBatchLoaderTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final LoadLimitProperties loadLimitProperties = new LoadLimitProperties(
+        Duration.ofSeconds(2),
+        Duration.ofSeconds(1),
+        10_000,
+        new LoadLimitProperties.AdaptiveLimit(false, 20, 1, 200, Duration.ofMillis(250), 0.9));
+    private ProductBatchLoader batchLoader;
+
+    @AfterEach
+    void tearDown() {
+        batchLoader.shutdown();
+    }
+
+    @Test
+    void loadsWithinWindowShouldShareOneQuery() {
+        batchLoader = newBatchLoader(Duration.ofMillis(50), 100);
+        Product first = product();
+        Product second = product();
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> List.of(first, second));
+
+        CompletableFuture<Product> firstFuture = batchLoader.load(first.getId());
+        CompletableFuture<Product> secondFuture = batchLoader.load(second.getId());
+
+        assertThat(firstFuture.join()).isSameAs(first);
+        assertThat(secondFuture.join()).isSameAs(second);
+        verify(productRepository, times(1)).findAllById(Set.of(first.getId(), second.getId()));
+    }
+
+    @Test
+    void missingIdShouldFailOnlyItsOwnFuture() {
+        batchLoader = newBatchLoader(Duration.ofMillis(50), 100);
+        Product existing = product();
+        UUID missingId = UUID.randomUUID();
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> List.of(existing));
+
+        CompletableFuture<Product> existingFuture = batchLoader.load(existing.getId());
+        CompletableFuture<Product> missingFuture = batchLoader.load(missingId);
+
+        assertThat(existingFuture.join()).isSameAs(existing);
+        assertThatThrownBy(missingFuture::join)
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(ProductNotFoundException.class);
+    }
+
+    @Test
+    void fullBatchShouldBeDispatchedWithoutWaitingForWindow() {
+        batchLoader = newBatchLoader(Duration.ofHours(1), 3);
+        List<Product> products = List.of(product(), product(), product());
+        when(productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Collection<UUID> ids = new ArrayList<>();
+            invocation.<Iterable<UUID>>getArgument(0).forEach(ids::add);
+            return products.stream().filter(product -> ids.contains(product.getId())).toList();
+        });
+
+        List<CompletableFuture<Product>> futures = products.stream()
+            .map(product -> batchLoader.load(product.getId()))
+            .toList();
+
+        assertThat(futures).allSatisfy(future -> assertThat(future.join()).isNotNull());
+        verify(productRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void rejectedDispatchShouldFailWholeBatch() {
+        batchLoader = newBatchLoader(Duration.ofHours(1), 1);
+        batchLoader.shutdown();
+
+        CompletableFuture<Product> future = batchLoader.load(UUID.randomUUID());
+
+        assertThatThrownBy(future::join)
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void shutdownShouldFailPendingBatch() {
+        batchLoader = newBatchLoader(Duration.ofHours(1), 100);
+        CompletableFuture<Product> future = batchLoader.load(UUID.randomUUID());
+
+        batchLoader.shutdown();
+
+        assertThatThrownBy(future::join)
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(RejectedExecutionException.class);
+        verify(productRepository, times(0)).findAllById(anyIterable());
+    }
+
+    @Test
+    void repositoryFailureShouldFailWholeBatch() {
+        batchLoader = newBatchLoader(Duration.ofMillis(10), 100);
+        when(productRepository.findAllById(anyIterable())).thenThrow(new IllegalStateException("connection refused"));
+
+        CompletableFuture<Product> future = batchLoader.load(UUID.randomUUID());
+
+        assertThatThrownBy(future::join).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    private ProductBatchLoader newBatchLoader(Duration window, int maxSize) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ReplicaProperties replicaProperties = new ReplicaProperties(false, List.of(),
+            ReplicaProperties.Selection.ROUND_ROBIN, Duration.ofSeconds(5), 100, Duration.ofSeconds(2),
+            Duration.ofSeconds(1));
+        ReplicaDataSources replicas =
+            new ReplicaDataSources(replicaProperties, new DataSourceProperties(), meterRegistry);
+        return new ProductBatchLoader(
+            new ProductReadRouter(productRepository, replicas, replicaProperties),
+            new BatchLoaderProperties(true, window, maxSize),
+            new LoaderExecutorProperties(LoaderExecutorProperties.Type.PLATFORM, 4, 100),
+            meterRegistry,
+            new ProductLoadMetrics(meterRegistry),
+            new AimdConcurrencyLimiter(loadLimitProperties, meterRegistry));
+    }
+
+    private static Product product() {
+        return new Product(UUID.randomUUID(), "Test Product", "Test Description", BigDecimal.TEN);
+    }
+}
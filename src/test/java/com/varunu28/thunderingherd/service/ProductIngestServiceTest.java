@@ -0,0 +1,114 @@
+package com.varunu28.thunderingherd.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.varunu28.thunderingherd.cache.ProductIdBloomFilter;
+import com.varunu28.thunderingherd.cache.ProductPageCache;
+import com.varunu28.thunderingherd.cache.RedisProductCache;
+import com.varunu28.thunderingherd.config.IngestProperties;
+import com.varunu28.thunderingherd.dto.BulkCreateProductsResultDto;
+import com.varunu28.thunderingherd.model.Product;
+import com.varunu28.thunderingherd.repository.ProductReadRouter;
+import io.micrometer.tracing.Tracer;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ProductIngestServiceTest {
+
+    private static final String VALID_PRODUCT =
+        "{\"name\":\"Test Product\",\"description\":\"Test Description\",\"price\":19.99}";
+    private static final String INVALID_PRODUCT = "{\"name\":\"Test Product\",\"price\":1}";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ProductIdBloomFilter bloomFilter = mock(ProductIdBloomFilter.class);
+    private final RedisProductCache redisCache = mock(RedisProductCache.class);
+    private final ProductPageCache pageCache = mock(ProductPageCache.class);
+    private final ProductReadRouter readRouter = mock(ProductReadRouter.class);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingestShouldInsertValidProductsInChunks() throws Exception {
+        ProductIngestService ingestService = newIngestService(2, false);
+
+        BulkCreateProductsResultDto result = ingestService.ingest(
+            body("[" + String.join(",", VALID_PRODUCT, INVALID_PRODUCT, VALID_PRODUCT, VALID_PRODUCT) + "]"));
+
+        assertThat(result).isEqualTo(new BulkCreateProductsResultDto(3, 1));
+        ArgumentCaptor<List<Product>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), chunks.capture(), anyInt(), any());
+        assertThat(chunks.getAllValues()).extracting(List::size).containsExactly(2, 1);
+        verify(bloomFilter, times(2)).addAll(anyCollection());
+        verify(pageCache, times(2)).invalidateAll();
+        verify(redisCache, never()).putAll(anyMap(), anyList(), anyLong());
+    }
+
+    @Test
+    void ingestShouldSkipProductsWithFieldsOfTheWrongType() throws Exception {
+        ProductIngestService ingestService = newIngestService(10, false);
+        String wrongPrice = "{\"name\":\"Test Product\",\"description\":\"Test Description\",\"price\":\"free\","
+            + "\"tags\":{\"color\":[\"red\"]}}";
+        String wrongName = "{\"name\":{\"en\":\"Test Product\"},\"description\":\"Test Description\",\"price\":19.99}";
+
+        BulkCreateProductsResultDto result = ingestService.ingest(
+            body("[" + String.join(",", VALID_PRODUCT, wrongPrice, "[1,2]", "42", wrongName, VALID_PRODUCT) + "]"));
+
+        assertThat(result).isEqualTo(new BulkCreateProductsResultDto(2, 4));
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList(), anyInt(), any());
+    }
+
+    @Test
+    void ingestShouldWriteThroughWhenEnabled() throws Exception {
+        ProductIngestService ingestService = newIngestService(10, true);
+
+        ingestService.ingest(body("[" + VALID_PRODUCT + "]"));
+
+        verify(redisCache).putAll(anyMap(), anyList(), anyLong());
+    }
+
+    @Test
+    void ingestShouldRejectBodiesThatAreNotArrays() {
+        ProductIngestService ingestService = newIngestService(10, false);
+
+        assertThatThrownBy(() -> ingestService.ingest(body(VALID_PRODUCT)))
+            .isInstanceOf(JsonProcessingException.class);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(), any());
+    }
+
+    private ProductIngestService newIngestService(int chunkSize, boolean writeThrough) {
+        return new ProductIngestService(
+            jdbcTemplate,
+            new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            bloomFilter,
+            redisCache,
+            pageCache,
+            readRouter,
+            Tracer.NOOP,
+            new IngestProperties(chunkSize, writeThrough));
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
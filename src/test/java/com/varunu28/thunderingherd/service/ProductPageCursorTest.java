@@ -0,0 +1,70 @@
+package com.varunu28.thunderingherd.service;
+
+import com.varunu28.thunderingherd.exception.InvalidPageRequestException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.UUID;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductPageCursorTest {
+
+    private static final SecretKey KEY = ProductPageCursor.key("test-secret".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void cursorShouldRoundTripWithMicroseconds() {
+        ProductPageCursor cursor =
+            new ProductPageCursor(3, Instant.parse("2025-08-01T10:15:30.123456Z"), UUID.randomUUID());
+
+        ProductPageCursor decoded = ProductPageCursor.decode(cursor.encode(KEY), KEY);
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.launchedAtTimestamp().getNanos()).isEqualTo(123_456_000);
+    }
+
+    @Test
+    void decodeShouldRejectMalformedCursors() throws GeneralSecurityException {
+        assertThat(ProductPageCursor.decode(signed("2:1:0:" + UUID.randomUUID(), KEY), KEY).page()).isEqualTo(2);
+        assertThatThrownBy(() -> ProductPageCursor.decode("not a cursor", KEY))
+            .isInstanceOf(InvalidPageRequestException.class);
+        assertThatThrownBy(() -> ProductPageCursor.decode(signed("1:2", KEY), KEY))
+            .isInstanceOf(InvalidPageRequestException.class);
+        assertThatThrownBy(() -> ProductPageCursor.decode(signed("0:1:0:" + UUID.randomUUID(), KEY), KEY))
+            .isInstanceOf(InvalidPageRequestException.class);
+    }
+
+    @Test
+    void decodeShouldRejectTamperedCursors() {
+        String token = new ProductPageCursor(3, Instant.now(), UUID.randomUUID()).encode(KEY);
+        String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))),
+            StandardCharsets.UTF_8);
+        String renumbered = encode("1" + payload.substring(1)) + token.substring(token.indexOf('.'));
+        SecretKey otherKey = ProductPageCursor.key("other-secret".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> ProductPageCursor.decode(renumbered, KEY))
+            .isInstanceOf(InvalidPageRequestException.class);
+        assertThatThrownBy(() -> ProductPageCursor.decode(token, otherKey))
+            .isInstanceOf(InvalidPageRequestException.class);
+        assertThatThrownBy(() -> ProductPageCursor.decode(encode(payload), KEY))
+            .isInstanceOf(InvalidPageRequestException.class);
+    }
+
+    // Signs a payload the way encode() does, so that decode() gets past the signature to the fields
+    private static String signed(String payload, SecretKey key) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(key);
+        byte[] signature = Arrays.copyOf(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)), 16);
+        return encode(payload) + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
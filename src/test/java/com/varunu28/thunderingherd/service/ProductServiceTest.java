@@ -1,10 +1,24 @@
 package com.varunu28.thunderingherd.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.varunu28.thunderingherd.TestcontainersConfiguration;
+import com.varunu28.thunderingherd.cache.CachedProduct;
+import com.varunu28.thunderingherd.cache.RedisProductCache;
 import com.varunu28.thunderingherd.exception.ProductNotFoundException;
 import com.varunu28.thunderingherd.model.Product;
 import com.varunu28.thunderingherd.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -17,13 +31,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -41,7 +62,22 @@ class ProductServiceTest {
     private ProductRepository productRepository;
 
     @Autowired
-    private RedisTemplate<String, Product> redisTemplate;
+    private RedisTemplate<String, CachedProduct> redisTemplate;
+
+    @MockitoSpyBean
+    private RedisProductCache redisProductCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductListingService productListingService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @BeforeEach
     void setUp() {
@@ -78,9 +114,10 @@ class ProductServiceTest {
         assertThat(foundProduct.getId()).isEqualTo(productId);
 
         // Verify it's now in the cache
-        Product cachedProduct = redisTemplate.opsForValue().get("product:" + productId);
+        CachedProduct cachedProduct = redisTemplate.opsForValue().get("product:" + productId);
         assertThat(cachedProduct).isNotNull();
-        assertThat(cachedProduct.getId()).isEqualTo(productId);
+        assertThat(cachedProduct.product().getId()).isEqualTo(productId);
+        assertThat(cachedProduct.expiresAt()).isGreaterThan(System.currentTimeMillis());
         
         verify(productRepository, times(1)).findById(productId);
     }
@@ -92,7 +129,8 @@ class ProductServiceTest {
         UUID productId = savedProduct.getId();
 
         // Manually put in cache
-        redisTemplate.opsForValue().set("product:" + productId, savedProduct);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        redisTemplate.opsForValue().set("product:" + productId, new CachedProduct(savedProduct, 0, expiresAt, expiresAt));
 
         // Reset spy before calling the service method
         clearInvocations(productRepository);
@@ -112,6 +150,19 @@ class ProductServiceTest {
         assertThrows(ProductNotFoundException.class, () -> productService.getProductById(randomId));
     }
 
+    @Test
+    void testGetProductById_notFoundIsNegativelyCached() {
+        UUID randomId = UUID.randomUUID();
+
+        assertThrows(ProductNotFoundException.class, () -> productService.getProductById(randomId));
+        assertThrows(ProductNotFoundException.class, () -> productService.getProductById(randomId));
+
+        CachedProduct tombstone = redisTemplate.opsForValue().get("product:" + randomId);
+        assertThat(tombstone).isNotNull();
+        assertThat(tombstone.isTombstone()).isTrue();
+        verify(productRepository, times(1)).findById(randomId);
+    }
+
     @Test
     void testGetProductById_concurrentAccess() throws InterruptedException {
         Product product = new Product("Concurrent Product", "Description", BigDecimal.valueOf(200.0));
@@ -143,4 +194,191 @@ class ProductServiceTest {
         // Verify that findById was called only once because of the lock
         verify(productRepository, times(1)).findById(productId);
     }
+
+    @Test
+    void testGetProductById_backfillFailureIsNotFatal() throws ProductNotFoundException {
+        Product savedProduct = productRepository.save(
+            new Product("Test Product", "Test Description", BigDecimal.valueOf(100.0)));
+        UUID productId = savedProduct.getId();
+        doThrow(new RedisConnectionFailureException("Redis is down"))
+            .when(redisProductCache).put(eq(productId), any(), anyLong());
+        double failuresBefore = meterRegistry.counter("product.cache.backfill.failures").count();
+
+        Product foundProduct = productService.getProductById(productId);
+
+        assertThat(foundProduct.getId()).isEqualTo(productId);
+        assertThat(meterRegistry.counter("product.cache.backfill.failures").count()).isEqualTo(failuresBefore + 1);
+        assertThat(meterRegistry.timer("product.db.lookups", "operation", "findById").count()).isPositive();
+    }
+
+    @Test
+    void testLease_backfillRejectedAfterInvalidation() {
+        Product product = productRepository.save(
+            new Product("Leased Product", "Description", BigDecimal.valueOf(300.0)));
+        UUID productId = product.getId();
+
+        String leaseToken = redisProductCache.tryAcquireLease(productId);
+        assertThat(leaseToken).isNotNull();
+        assertThat(redisProductCache.tryAcquireLease(productId)).isNull();
+
+        redisProductCache.invalidate(productId, product.getVersion() + 1);
+
+        assertThat(redisProductCache.putIfLeaseHeld(productId, leaseToken, product, 5)).isFalse();
+        assertThat(redisTemplate.opsForValue().get("product:" + productId)).isNull();
+    }
+
+    @Test
+    void testLease_backfillAcceptedWhileHeld() {
+        Product product = productRepository.save(
+            new Product("Leased Product", "Description", BigDecimal.valueOf(300.0)));
+        UUID productId = product.getId();
+
+        String leaseToken = redisProductCache.tryAcquireLease(productId);
+
+        assertThat(redisProductCache.putIfLeaseHeld(productId, leaseToken, product, 5)).isTrue();
+        CachedProduct cachedProduct = redisTemplate.opsForValue().get("product:" + productId);
+        assertThat(cachedProduct).isNotNull();
+        assertThat(cachedProduct.product().getId()).isEqualTo(productId);
+        // The lease is released together with the backfill
+        assertThat(redisProductCache.tryAcquireLease(productId)).isNotNull();
+    }
+
+    @Test
+    void testGetProductsByIds_mixedHitsAndMisses() {
+        Product cached = productRepository.save(new Product("Cached Product", "Description", BigDecimal.valueOf(10.0)));
+        Product first = productRepository.save(new Product("First Product", "Description", BigDecimal.valueOf(20.0)));
+        Product second = productRepository.save(new Product("Second Product", "Description", BigDecimal.valueOf(30.0)));
+        UUID missingId = UUID.randomUUID();
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        redisTemplate.opsForValue().set("product:" + cached.getId(), new CachedProduct(cached, 0, expiresAt, expiresAt));
+        clearInvocations(productRepository);
+
+        Map<UUID, Product> products = productService.getProductsByIds(
+            List.of(cached.getId(), first.getId(), second.getId(), missingId));
+
+        assertThat(products).containsOnlyKeys(cached.getId(), first.getId(), second.getId());
+        verify(productRepository, times(1)).findAllById(Set.of(first.getId(), second.getId(), missingId));
+        verify(productRepository, never()).findById(first.getId());
+        assertThat(redisTemplate.opsForValue().get("product:" + first.getId())).isNotNull();
+        CachedProduct tombstone = redisTemplate.opsForValue().get("product:" + missingId);
+        assertThat(tombstone).isNotNull();
+        assertThat(tombstone.isTombstone()).isTrue();
+
+        clearInvocations(productRepository);
+        productService.getProductsByIds(List.of(first.getId(), second.getId(), missingId));
+        verify(productRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void testUpdateProduct_evictsCachedCopies() throws ProductNotFoundException {
+        Product product = productRepository.save(
+            new Product("Test Product", "Test Description", BigDecimal.valueOf(100.0)));
+        UUID productId = product.getId();
+        productService.getProductById(productId);
+
+        Product updatedProduct = productService.updateProduct(productId, "New Name", "New Description", 150.0);
+
+        assertThat(updatedProduct.getVersion()).isEqualTo(product.getVersion() + 1);
+        assertThat(updatedProduct.getUpdatedAt()).isAfter(product.getUpdatedAt());
+        assertThat(redisTemplate.opsForValue().get("product:" + productId)).isNull();
+        Product foundProduct = productService.getProductById(productId);
+        assertThat(foundProduct.getName()).isEqualTo("New Name");
+        assertThat(foundProduct.getPrice()).isEqualByComparingTo(BigDecimal.valueOf(150.0));
+    }
+
+    @Test
+    void testBackfill_rejectedOnceANewerVersionIsKnown() {
+        Product product = productRepository.save(
+            new Product("Test Product", "Test Description", BigDecimal.valueOf(100.0)));
+        UUID productId = product.getId();
+
+        Product updatedProduct = productService.updateProduct(productId, "New Name", "New Description", 150.0);
+
+        // A load that read the row before the update finishes late
+        assertThat(redisProductCache.put(productId, product, 5)).isFalse();
+        assertThat(redisTemplate.opsForValue().get("product:" + productId)).isNull();
+        assertThat(redisProductCache.put(productId, updatedProduct, 5)).isTrue();
+        assertThat(redisProductCache.invalidate(productId, updatedProduct.getVersion())).isFalse();
+    }
+
+    @Test
+    void testDeleteProduct_isNotServedFromTheCache() throws ProductNotFoundException {
+        Product product = productRepository.save(
+            new Product("Test Product", "Test Description", BigDecimal.valueOf(100.0)));
+        UUID productId = product.getId();
+        productService.getProductById(productId);
+
+        productService.deleteProduct(productId);
+
+        assertThrows(ProductNotFoundException.class, () -> productService.getProductById(productId));
+        assertThrows(ProductNotFoundException.class, () -> productService.deleteProduct(productId));
+    }
+
+    @Test
+    void testDirectDatabaseUpdate_evictsThroughNotification() throws Exception {
+        Product product = productRepository.save(
+            new Product("Test Product", "Test Description", BigDecimal.valueOf(100.0)));
+        UUID productId = product.getId();
+        productService.getProductById(productId);
+        assertThat(redisTemplate.opsForValue().get("product:" + productId)).isNotNull();
+
+        jdbcTemplate.update("UPDATE products SET price = 250 WHERE id = ?", productId);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (redisTemplate.opsForValue().get("product:" + productId) != null && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        Product foundProduct = productService.getProductById(productId);
+        assertThat(foundProduct.getPrice()).isEqualByComparingTo(BigDecimal.valueOf(250));
+        // The trigger bumped the version and the update time of the hand-written update
+        assertThat(foundProduct.getVersion()).isEqualTo(product.getVersion() + 1);
+        assertThat(foundProduct.getUpdatedAt()).isAfter(product.getUpdatedAt());
+    }
+
+    @Test
+    void testListProducts_pagesThroughEveryProductOnceNewestFirst() {
+        Set<UUID> created = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(productService.createProduct("Product " + i, "Test Description", 100.0));
+        }
+
+        List<UUID> listed = new ArrayList<>();
+        List<Date> launchedAt = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = readPage(productListingService.listProducts(cursor, 2));
+            for (JsonNode product : page.get("products")) {
+                UUID id = UUID.fromString(product.get("id").asText());
+                listed.add(id);
+                launchedAt.add(productRepository.findById(id).orElseThrow().getLaunchedAt());
+            }
+            cursor = page.get("next_cursor").isNull() ? null : page.get("next_cursor").asText();
+        } while (cursor != null);
+
+        assertThat(listed).hasSize(5).containsExactlyInAnyOrderElementsOf(created);
+        assertThat(launchedAt).isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test
+    void testListProducts_cachedPagesAreInvalidatedByCreate() {
+        productService.createProduct("First Product", "Test Description", 100.0);
+        productListingService.listProducts(null, 10);
+        JsonNode cached = readPage(productListingService.listProducts(null, 10));
+        verify(productRepository, times(1)).streamNewest(any());
+        assertThat(cached.get("products").size()).isEqualTo(1);
+
+        UUID newProductId = productService.createProduct("Second Product", "Test Description", 100.0);
+        JsonNode refreshed = readPage(productListingService.listProducts(null, 10));
+
+        verify(productRepository, times(2)).streamNewest(any());
+        assertThat(refreshed.get("products").get(0).get("id").asText()).isEqualTo(newProductId.toString());
+    }
+
+    private JsonNode readPage(byte[] page) {
+        try {
+            return objectMapper.readTree(page);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
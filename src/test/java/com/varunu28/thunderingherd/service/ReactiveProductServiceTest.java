@@ -0,0 +1,96 @@
+package com.varunu28.thunderingherd.service;
+
+import com.varunu28.thunderingherd.cache.CachedProduct;
+import com.varunu28.thunderingherd.cache.HotKeyTracker;
+import com.varunu28.thunderingherd.cache.ProductIdBloomFilter;
+import com.varunu28.thunderingherd.cache.ProductNearCache;
+import com.varunu28.thunderingherd.cache.ReactiveRedisProductCache;
+import com.varunu28.thunderingherd.config.LoadLimitProperties;
+import com.varunu28.thunderingherd.exception.ServiceOverloadedException;
+import com.varunu28.thunderingherd.metrics.ProductCacheMetrics;
+import com.varunu28.thunderingherd.metrics.ProductLoadMetrics;
+import com.varunu28.thunderingherd.model.Product;
+import com.varunu28.thunderingherd.repository.ReactiveProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactiveProductServiceTest {
+
+    private final ReactiveProductRepository productRepository = mock(ReactiveProductRepository.class);
+    private final ReactiveRedisProductCache redisCache = mock(ReactiveRedisProductCache.class);
+    private final ProductIdBloomFilter bloomFilter = mock(ProductIdBloomFilter.class);
+    private final ProductLoadMetrics loadMetrics = spy(new ProductLoadMetrics(new SimpleMeterRegistry()));
+    private final ReactiveProductService productService = new ReactiveProductService(
+        productRepository,
+        redisCache,
+        mock(ProductNearCache.class),
+        bloomFilter,
+        mock(HotKeyTracker.class),
+        mock(ProductCacheMetrics.class),
+        loadMetrics,
+        new LoadLimitProperties(Duration.ofSeconds(5), Duration.ofSeconds(1), 2, null));
+
+    @BeforeEach
+    void setUp() {
+        when(bloomFilter.mightContain(any())).thenReturn(true);
+        when(redisCache.get(any())).thenReturn(Mono.empty());
+        when(redisCache.getAll(anyList())).thenAnswer(invocation -> {
+            List<CachedProduct> misses = new ArrayList<>(Collections.nCopies(invocation.<List<?>>getArgument(0).size(),
+                (CachedProduct) null));
+            return Mono.just(misses);
+        });
+        when(redisCache.putTombstone(any())).thenReturn(Mono.empty());
+        when(redisCache.putAll(any(), anyCollection(), anyLong())).thenReturn(Mono.empty());
+        when(productRepository.findAllById(anyCollection())).thenReturn(Flux.empty());
+    }
+
+    @Test
+    void rejectedBatchShouldReleaseTheLoadsItNeverStarted() {
+        UUID inFlight = UUID.randomUUID();
+        Sinks.One<Product> inFlightLoad = Sinks.one();
+        when(productRepository.findById(inFlight)).thenReturn(inFlightLoad.asMono());
+        productService.getProductById(inFlight).subscribe(product -> {
+        }, e -> {
+        });
+        // The first rejection frees a slot again, so the id after the rejected one gets registered but never runs
+        doAnswer(invocation -> {
+            inFlightLoad.tryEmitEmpty();
+            return invocation.callRealMethod();
+        }).when(loadMetrics).recordLoadRejected();
+
+        assertThatThrownBy(() -> productService.getProductsByIds(
+            List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID())).block())
+            .isInstanceOf(ServiceOverloadedException.class);
+
+        // Both slots are free again
+        for (int i = 0; i < 2; i++) {
+            UUID id = UUID.randomUUID();
+            when(productRepository.findById(id)).thenReturn(Mono.never());
+            productService.getProductById(id).subscribe(product -> {
+            }, e -> {
+            });
+        }
+        verify(loadMetrics, times(1)).recordLoadRejected();
+    }
+}
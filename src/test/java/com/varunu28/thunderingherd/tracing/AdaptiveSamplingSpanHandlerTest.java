@@ -0,0 +1,84 @@
+package com.varunu28.thunderingherd.tracing;
+
+import brave.Span;
+import brave.Tracer;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import com.varunu28.thunderingherd.config.TraceSamplingProperties;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveSamplingSpanHandlerTest {
+
+    private final List<String> reported = new CopyOnWriteArrayList<>();
+    private final Tracing tracing = Tracing.newBuilder()
+        .addSpanHandler(new AdaptiveSamplingSpanHandler(
+            new TraceSamplingProperties(true, 0.01, Duration.ofMillis(100), 100)))
+        .addSpanHandler(new SpanHandler() {
+            @Override
+            public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+                reported.add(span.name());
+                return true;
+            }
+        })
+        .build();
+    private final Tracer tracer = tracing.tracer();
+
+    @AfterEach
+    void tearDown() {
+        tracing.close();
+    }
+
+    @Test
+    void cacheHitTraceShouldBeDropped() {
+        Span root = tracer.newTrace().name("http get").start();
+        Span request = tracer.newChild(root.context()).name("get-product").start();
+        request.tag(CacheHitSampler.DROP_TAG, "cache-hit");
+        request.finish();
+        root.finish();
+
+        assertThat(reported).isEmpty();
+    }
+
+    @Test
+    void missTraceShouldBeKept() {
+        Span root = tracer.newTrace().name("http get").start();
+        Span request = tracer.newChild(root.context()).name("get-product").start();
+        tracer.newChild(request.context()).name("db lookup").start().finish();
+        request.finish();
+        root.finish();
+
+        assertThat(reported).containsExactly("db lookup", "get-product", "http get");
+    }
+
+    @Test
+    void failedCacheHitShouldBeKept() {
+        Span root = tracer.newTrace().name("http get").start();
+        Span request = tracer.newChild(root.context()).name("get-product").start();
+        request.tag(CacheHitSampler.DROP_TAG, "cache-hit");
+        request.error(new IllegalStateException("boom"));
+        request.finish();
+        root.finish();
+
+        assertThat(reported).containsExactly("get-product", "http get");
+    }
+
+    @Test
+    void slowCacheHitShouldKeepItsRoot() {
+        long start = 1_000_000;
+        Span root = tracer.newTrace().name("http get").start(start);
+        Span request = tracer.newChild(root.context()).name("get-product").start(start);
+        request.tag(CacheHitSampler.DROP_TAG, "cache-hit");
+        request.finish(start + 1_000);
+        root.finish(start + 500_000);
+
+        assertThat(reported).containsExactly("http get");
+    }
+}
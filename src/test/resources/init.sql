@@ -5,7 +5,46 @@ CREATE TABLE products (
     name VARCHAR(255) NOT NULL,
     description TEXT,
     price NUMERIC(10,2) NOT NULL,
-    launched_at TIMESTAMP
+    launched_at TIMESTAMP NOT NULL DEFAULT now(),
+    updated_at TIMESTAMP NOT NULL DEFAULT now(),
+    version BIGINT NOT NULL DEFAULT 0
 );
 
-CREATE INDEX idx_products_id ON products(id);
\ No newline at end of file
+CREATE INDEX idx_products_id ON products(id);
+
+-- Keyset pagination of the product listing, scanned backwards for newest first
+CREATE INDEX idx_products_launched_at_id ON products(launched_at, id);
+
+-- JPA bumps the version and sets updated_at itself, a plain UPDATE run by hand gets both here
+CREATE FUNCTION products_bump_version() RETURNS trigger AS $$
+BEGIN
+    IF NEW.version <= OLD.version THEN
+        NEW.version := OLD.version + 1;
+    END IF;
+    IF NEW.updated_at IS NOT DISTINCT FROM OLD.updated_at THEN
+        NEW.updated_at := now();
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER products_bump_version
+    BEFORE UPDATE ON products
+    FOR EACH ROW EXECUTE FUNCTION products_bump_version();
+
+-- Tells every instance which cached products went stale, as '<op>:<id>:<version>'. A delete announces the
+-- version after the last one so that it outranks every copy of the row. Notifications are only delivered on commit.
+CREATE FUNCTION products_notify_change() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        PERFORM pg_notify('product_changes', 'DELETE:' || OLD.id || ':' || (OLD.version + 1));
+        RETURN OLD;
+    END IF;
+    PERFORM pg_notify('product_changes', 'UPDATE:' || NEW.id || ':' || NEW.version);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER products_notify_change
+    AFTER UPDATE OR DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION products_notify_change();
\ No newline at end of file